@@ -0,0 +1,102 @@
+package com.expense_tracker.benchmarks;
+
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Transaction;
+import com.expense_tracker.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting {@code rows} expenses or transactions with one batched
+ * {@code addExpenses}/{@code addTransactions} call, against the same rows
+ * inserted one {@code addExpense}/{@code addTransaction} call at a time.
+ * Each invocation inserts all rows, so the score is the time for the whole set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"500"})
+    public int batchSize;
+
+    private ExpensetrackerAppDAO dao;
+    private List<Expense> expenses;
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dao = BenchmarkDatabase.open(0);
+        dao.setBatchSize(batchSize);
+        Random random = new Random(3);
+        expenses = new ArrayList<>(rows);
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            expenses.add(BenchmarkDatabase.randomExpense(random));
+            transactions.add(BenchmarkDatabase.randomTransaction(random));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    // Each insert overwrites the generated id, so the same rows can be inserted again
+
+    @Benchmark
+    public int addExpensesBatched() throws SQLException {
+        return dao.addExpenses(expenses);
+    }
+
+    @Benchmark
+    public int addExpenseRowAtATime() throws SQLException {
+        int inserted = 0;
+        for (Expense expense : expenses) {
+            if (dao.addExpense(expense)) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public int addTransactionsBatched() throws SQLException {
+        return dao.addTransactions(transactions);
+    }
+
+    @Benchmark
+    public int addTransactionRowAtATime() {
+        int inserted = 0;
+        for (Transaction transaction : transactions) {
+            if (dao.addTransaction(transaction)) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,121 @@
+package com.expense_tracker.benchmarks;
+
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Transaction;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Points the application at an embedded database and fills it with
+ * reproducible test data. Must be called before anything touches
+ * {@code DatabaseConnection}, which reads its settings once.
+ */
+public final class BenchmarkDatabase {
+    public static final LocalDate FIRST_DATE = LocalDate.of(2015, 1, 1);
+    public static final LocalDate LAST_DATE = LocalDate.of(2024, 12, 31);
+    static final int CATEGORY_COUNT = 13;
+
+    private static final int SEED_CHUNK = 10_000;
+    private static final String[] NAMES = {
+        "Groceries", "Coffee", "Rent", "Electricity", "Bus pass", "Cinema",
+        "Pharmacy", "Books", "Gift", "Flight", "Haircut", "Vet", "Misc"
+    };
+    private static final String[] INCOME_CATEGORIES = {"Salary", "Freelance", "Interest"};
+
+    static {
+        // Explicit -D settings win, e.g. to benchmark against a real MySQL server
+        // H2 would otherwise return cached results for repeated identical queries
+        setDefault("expense.db.url", "jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+            + ";OPTIMIZE_REUSE_RESULTS=FALSE");
+        setDefault("expense.db.user", "sa");
+        setDefault("expense.db.password", "");
+        setDefault("expense.db.streamFetchSize", "1000");
+        setDefault("expense.totals.reconcileMinutes", "0");
+    }
+
+    /**
+     * Opens the DAO (running the schema migrations) and inserts {@code rows}
+     * expenses spread evenly over ten years and all default categories.
+     */
+    public static ExpensetrackerAppDAO open(int rows) throws SQLException {
+        return open(rows, 0);
+    }
+
+    /**
+     * Like {@link #open(int)}, also inserting {@code transactionRows} transactions.
+     */
+    public static ExpensetrackerAppDAO open(int rows, int transactionRows) throws SQLException {
+        long start = System.nanoTime();
+        ExpensetrackerAppDAO dao = new ExpensetrackerAppDAO();
+        dao.setBatchSize(1000);
+        seedExpenses(dao, rows);
+        seedTransactions(dao, transactionRows);
+        System.out.printf("Seeded %d expenses and %d transactions in %d ms%n",
+            rows, transactionRows, (System.nanoTime() - start) / 1_000_000);
+        return dao;
+    }
+
+    static void seedExpenses(ExpensetrackerAppDAO dao, int rows) throws SQLException {
+        Random random = new Random(42);
+        List<Expense> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < rows; i++) {
+            chunk.add(randomExpense(random));
+            if (chunk.size() == SEED_CHUNK || i == rows - 1) {
+                dao.addExpenses(chunk);
+                chunk.clear();
+            }
+        }
+    }
+
+    static void seedTransactions(ExpensetrackerAppDAO dao, int rows) throws SQLException {
+        Random random = new Random(7);
+        List<Transaction> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < rows; i++) {
+            chunk.add(randomTransaction(random));
+            if (chunk.size() == SEED_CHUNK || i == rows - 1) {
+                dao.addTransactions(chunk);
+                chunk.clear();
+            }
+        }
+    }
+
+    public static Expense randomExpense(Random random) {
+        int category = 1 + random.nextInt(CATEGORY_COUNT);
+        return new Expense(
+            NAMES[category - 1],
+            category,
+            100 + random.nextInt(50_000),
+            null,
+            randomDate(random)
+        );
+    }
+
+    public static Transaction randomTransaction(Random random) {
+        boolean income = random.nextInt(4) == 0;
+        return new Transaction(
+            randomDate(random),
+            income ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE,
+            income ? INCOME_CATEGORIES[random.nextInt(INCOME_CATEGORIES.length)] : NAMES[random.nextInt(NAMES.length)],
+            100 + random.nextInt(income ? 500_000 : 50_000),
+            "benchmark"
+        );
+    }
+
+    private static LocalDate randomDate(Random random) {
+        int days = (int) (LAST_DATE.toEpochDay() - FIRST_DATE.toEpochDay()) + 1;
+        return FIRST_DATE.plusDays(random.nextInt(days));
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private BenchmarkDatabase() {}
+}
@@ -0,0 +1,89 @@
+package com.expense_tracker.benchmarks;
+
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The main {@link ExpensetrackerAppDAO} read and write paths against a table
+ * of {@code rows} expenses. The 10M volume needs a large heap, e.g.
+ * {@code -p rows=10000000 -jvmArgsAppend -Xmx12g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private ExpensetrackerAppDAO dao;
+    private Random random;
+
+    // One month in the middle of the data, and a year that starts and ends mid-month
+    private final LocalDate monthStart = LocalDate.of(2020, 6, 1);
+    private final LocalDate monthEnd = LocalDate.of(2020, 6, 30);
+    private final LocalDate yearStart = LocalDate.of(2019, 3, 15);
+    private final LocalDate yearEnd = LocalDate.of(2020, 3, 14);
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dao = BenchmarkDatabase.open(rows, Math.max(1, rows / 10));
+        random = new Random(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    @Benchmark
+    public boolean addExpense() throws SQLException {
+        return dao.addExpense(BenchmarkDatabase.randomExpense(random));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Expense> getAllExpenses() throws SQLException {
+        return dao.getAllExpenses();
+    }
+
+    @Benchmark
+    public List<Expense> getExpensesByDateRange() throws SQLException {
+        return dao.getExpensesByDateRange(monthStart, monthEnd);
+    }
+
+    @Benchmark
+    public Map<String, Long> getExpensesByCategory() throws SQLException {
+        return dao.getExpensesByCategory(yearStart, yearEnd);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long getBalance() {
+        return dao.getBalanceCents();
+    }
+}
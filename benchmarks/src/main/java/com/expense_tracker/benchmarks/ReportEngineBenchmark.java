@@ -0,0 +1,80 @@
+package com.expense_tracker.benchmarks;
+
+import com.expense_tracker.analytics.ExpenseColumnStore;
+import com.expense_tracker.analytics.ParallelReportEngine;
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Category;
+import com.expense_tracker.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expenses-by-category over a multi-year range: the SQL path (monthly rollup
+ * plus raw edge months) against a sequential and a fork/join scan of the
+ * columnar snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportEngineBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private ExpensetrackerAppDAO dao;
+    private ExpenseColumnStore store;
+    private ParallelReportEngine engine;
+    private List<Category> categories;
+
+    // Starts and ends mid-month so the SQL path also reads raw rows
+    private final LocalDate from = BenchmarkDatabase.FIRST_DATE.plusDays(14);
+    private final LocalDate to = BenchmarkDatabase.LAST_DATE.minusDays(14);
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dao = BenchmarkDatabase.open(rows);
+        store = ExpenseColumnStore.attach(dao);
+        engine = new ParallelReportEngine(store);
+        categories = dao.getAllCategories();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Long> sql() throws SQLException {
+        return dao.getExpensesByCategory(from, to);
+    }
+
+    @Benchmark
+    public long[] columnarSequential() {
+        return store.totalsByCategory(from, to);
+    }
+
+    @Benchmark
+    public Map<String, Long> columnarForkJoin() {
+        return engine.expensesByCategory(from, to, categories);
+    }
+}
@@ -0,0 +1,60 @@
+package com.expense_tracker.benchmarks;
+
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per row of reading and mapping {@code Expense} and {@code Transaction}
+ * objects, through the DAO's streaming {@code forEach} methods over a seeded
+ * table. Nothing is collected, so the time is the query plus the row mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+    private static final int ROWS = 10_000;
+
+    private ExpensetrackerAppDAO dao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dao = BenchmarkDatabase.open(ROWS, ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapExpense(Blackhole blackhole) throws SQLException {
+        dao.forEachExpense(blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapTransaction(Blackhole blackhole) throws SQLException {
+        dao.forEachTransaction(blackhole::consume);
+    }
+}
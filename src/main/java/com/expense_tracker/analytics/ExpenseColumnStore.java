@@ -0,0 +1,312 @@
+package com.expense_tracker.analytics;
+
+import com.expense_tracker.dao.ExpenseChangeListener;
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.util.ReloadBuffer;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, column-oriented copy of the expenses table for analytics.
+ *
+ * Each column is a primitive array (id, epoch day, month, category id, amount
+ * in cents) and expense names are dictionary encoded, so aggregations are
+ * tight loops over arrays that allocate nothing per row. Rows are kept in id
+ * order. The store registers itself with the DAO and applies every committed
+ * insert, update and delete, so it stays current without re-querying.
+ *
+ * The application itself has no category report view; the store and
+ * {@link ParallelReportEngine} are currently only used by the report engine
+ * benchmark, which compares them with the SQL rollup path.
+ */
+public class ExpenseColumnStore implements ExpenseChangeListener {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReloadBuffer reloads = new ReloadBuffer(lock.writeLock());
+
+    // Guarded by lock
+    private Table table = new Table();
+
+    /**
+     * Creates a store, subscribes it to {@code dao} and loads the table.
+     */
+    public static ExpenseColumnStore attach(ExpensetrackerAppDAO dao) throws SQLException {
+        ExpenseColumnStore store = new ExpenseColumnStore();
+        // Subscribe first so no write is missed
+        dao.addExpenseChangeListener(store);
+        store.reload(dao);
+        return store;
+    }
+
+    /**
+     * Replaces the contents with a fresh streaming scan of the expenses
+     * table; readers carry on against the old table meanwhile (see
+     * {@link ReloadBuffer}).
+     */
+    public void reload(ExpensetrackerAppDAO dao) throws SQLException {
+        reloads.reload(() -> {
+            Table loaded = new Table();
+            dao.scanExpenses(loaded::upsert);
+            return loaded;
+        }, loaded -> table = loaded);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals in cents per category over {@code [from, to]}, indexed by category
+     * id. Categories without expenses in the range have 0.
+     */
+    public long[] totalsByCategory(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            long[] totals = new long[t.maxCategoryId + 1];
+            for (int i = 0; i < t.size; i++) {
+                int day = t.epochDays[i];
+                if (day >= fromDay && day <= toDay) {
+                    totals[t.categoryIds[i]] += t.amountCents[i];
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monthly totals in cents from {@code from} to {@code to} inclusive; element
+     * 0 is {@code from}. A negative {@code categoryId} includes all categories.
+     */
+    public long[] monthlyTotals(int categoryId, YearMonth from, YearMonth to) {
+        int first = monthIndex(from.getYear(), from.getMonthValue());
+        int last = monthIndex(to.getYear(), to.getMonthValue());
+        long[] totals = new long[Math.max(0, last - first + 1)];
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            for (int i = 0; i < t.size; i++) {
+                int month = t.months[i];
+                if (month >= first && month <= last && (categoryId < 0 || t.categoryIds[i] == categoryId)) {
+                    totals[month - first] += t.amountCents[i];
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Total in cents of all expenses over {@code [from, to]}. */
+    public long total(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            long total = 0;
+            for (int i = 0; i < t.size; i++) {
+                int day = t.epochDays[i];
+                if (day >= fromDay && day <= toDay) {
+                    total += t.amountCents[i];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of expenses over {@code [from, to]}. */
+    public int count(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            int count = 0;
+            for (int i = 0; i < t.size; i++) {
+                int day = t.epochDays[i];
+                if (day >= fromDay && day <= toDay) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Total in cents of the expenses with exactly this name over
+     * {@code [from, to]}; compares dictionary codes rather than strings.
+     */
+    public long totalForName(String name, LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            int code = t.names.lookup(name);
+            if (code == StringDictionary.NULL_CODE) {
+                return 0;
+            }
+            long total = 0;
+            for (int i = 0; i < t.size; i++) {
+                int day = t.epochDays[i];
+                if (t.nameCodes[i] == code && day >= fromDay && day <= toDay) {
+                    total += t.amountCents[i];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The column arrays as seen under the read lock. Only valid inside
+     * {@link #read}; rows at or beyond {@code size} are garbage.
+     */
+    record Columns(int size, int[] epochDays, int[] months, int[] categoryIds, long[] amountCents,
+                   int maxCategoryId) {
+    }
+
+    @FunctionalInterface
+    interface ColumnReader<R> {
+        R read(Columns columns);
+    }
+
+    /**
+     * Runs {@code reader} against the columns while holding the read lock, so
+     * writers wait until it returns. Used by {@link ParallelReportEngine}.
+     */
+    <R> R read(ColumnReader<R> reader) {
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            return reader.read(new Columns(t.size, t.epochDays, t.months, t.categoryIds, t.amountCents,
+                t.maxCategoryId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ExpenseChangeListener
+    @Override
+    public void expensesAdded(List<Expense> expenses) {
+        reloads.apply(() -> {
+            for (Expense expense : expenses) {
+                table.upsert(expense);
+            }
+        });
+    }
+
+    @Override
+    public void expenseUpdated(Expense expense) {
+        reloads.apply(() -> table.upsert(expense));
+    }
+
+    @Override
+    public void expenseDeleted(int id) {
+        reloads.apply(() -> table.delete(id));
+    }
+
+    static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    /** The columns themselves; not thread-safe. */
+    private static final class Table {
+        private final StringDictionary names = new StringDictionary();
+        private int size;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+        private int[] months = new int[INITIAL_CAPACITY];
+        private int[] categoryIds = new int[INITIAL_CAPACITY];
+        private long[] amountCents = new long[INITIAL_CAPACITY];
+        private int[] nameCodes = new int[INITIAL_CAPACITY];
+        private int maxCategoryId;
+
+        void upsert(Expense expense) {
+            upsert(expense.getId(), expense.getName(), expense.getCategoryId(), expense.getAmountCents(),
+                (int) expense.getDate().toEpochDay());
+        }
+
+        private void upsert(int id, String name, int categoryId, long cents, int epochDay) {
+            int row;
+            if (size == 0 || id > ids[size - 1]) {
+                // New ids almost always arrive in increasing order
+                row = size;
+                insertAt(row);
+            } else {
+                row = Arrays.binarySearch(ids, 0, size, id);
+                if (row < 0) {
+                    row = -row - 1;
+                    insertAt(row);
+                }
+            }
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            ids[row] = id;
+            epochDays[row] = epochDay;
+            months[row] = monthIndex(date.getYear(), date.getMonthValue());
+            categoryIds[row] = categoryId;
+            amountCents[row] = cents;
+            nameCodes[row] = names.encode(name);
+            maxCategoryId = Math.max(maxCategoryId, categoryId);
+        }
+
+        void delete(int id) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row >= 0) {
+                int tail = size - row - 1;
+                System.arraycopy(ids, row + 1, ids, row, tail);
+                System.arraycopy(epochDays, row + 1, epochDays, row, tail);
+                System.arraycopy(months, row + 1, months, row, tail);
+                System.arraycopy(categoryIds, row + 1, categoryIds, row, tail);
+                System.arraycopy(amountCents, row + 1, amountCents, row, tail);
+                System.arraycopy(nameCodes, row + 1, nameCodes, row, tail);
+                size--;
+            }
+        }
+
+        private void insertAt(int row) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                months = Arrays.copyOf(months, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+                amountCents = Arrays.copyOf(amountCents, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+            }
+            int tail = size - row;
+            if (tail > 0) {
+                System.arraycopy(ids, row, ids, row + 1, tail);
+                System.arraycopy(epochDays, row, epochDays, row + 1, tail);
+                System.arraycopy(months, row, months, row + 1, tail);
+                System.arraycopy(categoryIds, row, categoryIds, row + 1, tail);
+                System.arraycopy(amountCents, row, amountCents, row + 1, tail);
+                System.arraycopy(nameCodes, row, nameCodes, row + 1, tail);
+            }
+            size++;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.expense_tracker.analytics;
+
+import com.expense_tracker.analytics.ExpenseColumnStore.Columns;
+import com.expense_tracker.model.Category;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join aggregations over an {@link ExpenseColumnStore}.
+ *
+ * The rows are split into contiguous blocks; each leaf task filters its block
+ * by the requested date range and sums into its own primitive accumulator
+ * array keyed by category id (or month), so workers share no mutable state.
+ * Partial arrays are added together as the tasks join.
+ */
+public class ParallelReportEngine {
+    /** Rows below which a task aggregates sequentially instead of splitting. */
+    static final int DEFAULT_LEAF_SIZE = 1 << 16;
+
+    private final ExpenseColumnStore store;
+    private final ForkJoinPool pool;
+    private final int leafSize;
+
+    public ParallelReportEngine(ExpenseColumnStore store) {
+        this(store, ForkJoinPool.commonPool(), DEFAULT_LEAF_SIZE);
+    }
+
+    public ParallelReportEngine(ExpenseColumnStore store, ForkJoinPool pool, int leafSize) {
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Leaf size must be at least 1");
+        }
+        this.store = store;
+        this.pool = pool;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Totals in cents per category over {@code [from, to]}, indexed by
+     * category id; the parallel counterpart of
+     * {@link ExpenseColumnStore#totalsByCategory}.
+     */
+    public long[] totalsByCategory(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        return store.read(columns -> pool.invoke(
+            new CategoryTotalsTask(columns, fromDay, toDay, 0, columns.size())));
+    }
+
+    /**
+     * Monthly totals in cents from {@code from} to {@code to} inclusive over all
+     * categories; element 0 is {@code from}.
+     */
+    public long[] monthlyTotals(YearMonth from, YearMonth to) {
+        int first = ExpenseColumnStore.monthIndex(from.getYear(), from.getMonthValue());
+        int last = ExpenseColumnStore.monthIndex(to.getYear(), to.getMonthValue());
+        if (last < first) {
+            return new long[0];
+        }
+        return store.read(columns -> pool.invoke(
+            new MonthlyTotalsTask(columns, first, last, 0, columns.size())));
+    }
+
+    /**
+     * Same shape as {@code ExpensetrackerAppDAO.getExpensesByCategory}: total
+     * in cents per category name, for categories with a non-zero total.
+     */
+    public Map<String, Long> expensesByCategory(LocalDate from, LocalDate to, List<Category> categories) {
+        long[] totals = totalsByCategory(from, to);
+        Map<String, Long> byName = new HashMap<>();
+        for (Category category : categories) {
+            int id = category.getId();
+            if (id >= 0 && id < totals.length && totals[id] != 0) {
+                byName.put(category.getName(), totals[id]);
+            }
+        }
+        return byName;
+    }
+
+    private abstract class AggregateTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        final transient Columns columns;
+        final int start;
+        final int end;
+
+        AggregateTask(Columns columns, int start, int end) {
+            this.columns = columns;
+            this.start = start;
+            this.end = end;
+        }
+
+        abstract long[] aggregate();
+
+        abstract AggregateTask subtask(int start, int end);
+
+        @Override
+        protected long[] compute() {
+            if (end - start <= leafSize) {
+                return aggregate();
+            }
+            int middle = (start + end) >>> 1;
+            AggregateTask left = subtask(start, middle);
+            left.fork();
+            long[] right = subtask(middle, end).compute();
+            long[] merged = left.join();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += right[i];
+            }
+            return merged;
+        }
+    }
+
+    private final class CategoryTotalsTask extends AggregateTask {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromDay;
+        private final int toDay;
+
+        CategoryTotalsTask(Columns columns, int fromDay, int toDay, int start, int end) {
+            super(columns, start, end);
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        long[] aggregate() {
+            long[] totals = new long[columns.maxCategoryId() + 1];
+            int[] days = columns.epochDays();
+            int[] categories = columns.categoryIds();
+            long[] amounts = columns.amountCents();
+            for (int i = start; i < end; i++) {
+                int day = days[i];
+                if (day >= fromDay && day <= toDay) {
+                    totals[categories[i]] += amounts[i];
+                }
+            }
+            return totals;
+        }
+
+        @Override
+        AggregateTask subtask(int start, int end) {
+            return new CategoryTotalsTask(columns, fromDay, toDay, start, end);
+        }
+    }
+
+    private final class MonthlyTotalsTask extends AggregateTask {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstMonth;
+        private final int lastMonth;
+
+        MonthlyTotalsTask(Columns columns, int firstMonth, int lastMonth, int start, int end) {
+            super(columns, start, end);
+            this.firstMonth = firstMonth;
+            this.lastMonth = lastMonth;
+        }
+
+        @Override
+        long[] aggregate() {
+            long[] totals = new long[lastMonth - firstMonth + 1];
+            int[] months = columns.months();
+            long[] amounts = columns.amountCents();
+            for (int i = start; i < end; i++) {
+                int month = months[i];
+                if (month >= firstMonth && month <= lastMonth) {
+                    totals[month - firstMonth] += amounts[i];
+                }
+            }
+            return totals;
+        }
+
+        @Override
+        AggregateTask subtask(int start, int end) {
+            return new MonthlyTotalsTask(columns, firstMonth, lastMonth, start, end);
+        }
+    }
+}
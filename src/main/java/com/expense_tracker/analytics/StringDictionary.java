@@ -0,0 +1,45 @@
+package com.expense_tracker.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a string column: each distinct value is stored once
+ * and rows hold its {@code int} code. Codes are dense and never reused.
+ * Not thread-safe; guarded by the owning store's lock.
+ */
+class StringDictionary {
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /** The code of {@code value}, or {@link #NULL_CODE} if it was never encoded. */
+    int lookup(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
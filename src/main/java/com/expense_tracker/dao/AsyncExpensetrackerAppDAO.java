@@ -0,0 +1,138 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Category;
+import com.expense_tracker.model.Expense;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link ExpensetrackerAppDAO} calls on a bounded pool of background
+ * threads so the Swing Event Dispatch Thread never waits on the database.
+ *
+ * Every method returns a {@link CompletableFuture}. A task whose future was
+ * cancelled while still queued is skipped instead of hitting the database.
+ * Completion callbacks run on the worker thread; UI code has to hop back to
+ * the EDT itself.
+ */
+public class AsyncExpensetrackerAppDAO {
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    @FunctionalInterface
+    public interface DaoCall<T> {
+        T call(ExpensetrackerAppDAO dao) throws Exception;
+    }
+
+    private final ExpensetrackerAppDAO dao;
+    private final ThreadPoolExecutor executor;
+
+    public AsyncExpensetrackerAppDAO(ExpensetrackerAppDAO dao) {
+        this(dao, DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public AsyncExpensetrackerAppDAO(ExpensetrackerAppDAO dao, int threads, int queueCapacity) {
+        this.dao = dao;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "dao-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public ExpensetrackerAppDAO getDao() {
+        return dao;
+    }
+
+    /**
+     * Runs an arbitrary DAO call in the background.
+     */
+    public <T> CompletableFuture<T> submit(DaoCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // Cancelled while queued
+                }
+                try {
+                    future.complete(call.call(dao));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Category operations
+    public CompletableFuture<List<Category>> getAllCategories() {
+        return submit(ExpensetrackerAppDAO::getAllCategories);
+    }
+
+    public CompletableFuture<Boolean> addCategory(Category category) {
+        return submit(d -> d.addCategory(category));
+    }
+
+    public CompletableFuture<Boolean> updateCategory(Category category) {
+        return submit(d -> d.updateCategory(category));
+    }
+
+    public CompletableFuture<Boolean> deleteCategory(int id) {
+        return submit(d -> d.deleteCategory(id));
+    }
+
+    // Expense operations
+    public CompletableFuture<Integer> countExpenses() {
+        return submit(ExpensetrackerAppDAO::countExpenses);
+    }
+
+    public CompletableFuture<List<Expense>> getExpensesPage(Expense after, int limit) {
+        return submit(d -> d.getExpensesPage(after, limit));
+    }
+
+    public CompletableFuture<Expense> getExpenseById(int id) {
+        return submit(d -> d.getExpenseById(id));
+    }
+
+    public CompletableFuture<List<Expense>> getExpensesByIds(int[] ids) {
+        return submit(d -> d.getExpensesByIds(ids));
+    }
+
+    public CompletableFuture<Boolean> addExpense(Expense expense) {
+        return submit(d -> d.addExpense(expense));
+    }
+
+    public CompletableFuture<Boolean> updateExpense(Expense expense) {
+        return submit(d -> d.updateExpense(expense));
+    }
+
+    public CompletableFuture<Boolean> deleteExpense(int id) {
+        return submit(d -> d.deleteExpense(id));
+    }
+
+    // Change polling
+    public CompletableFuture<ChangeVersions> getChangeVersions() {
+        return submit(ExpensetrackerAppDAO::getChangeVersions);
+    }
+
+    public CompletableFuture<ExpenseChanges> getExpenseChangesSince(long version, int limit) {
+        return submit(d -> d.getExpenseChangesSince(version, limit));
+    }
+
+    /**
+     * Stops accepting work and lets queued calls finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,110 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Category;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read-through cache of the (small) categories table.
+ *
+ * The cached data is an immutable snapshot swapped in atomically, so reads
+ * never lock. Every write bumps a version stamp; a snapshot carries the
+ * version it was loaded under and is ignored once the stamp has moved on,
+ * which also discards a load that raced with a write.
+ */
+class CategoryCache {
+
+    @FunctionalInterface
+    interface Loader {
+        List<Category> load() throws SQLException;
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<Category> sorted;
+        private final Map<Integer, Category> byId;
+        private final Map<String, Category> byName;
+
+        private Snapshot(long version, List<Category> categories) {
+            this.version = version;
+            this.sorted = Collections.unmodifiableList(new ArrayList<>(categories));
+            Map<Integer, Category> ids = new HashMap<>();
+            Map<String, Category> names = new HashMap<>();
+            for (Category category : categories) {
+                ids.put(category.getId(), category);
+                names.put(nameKey(category.getName()), category);
+            }
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byName = Collections.unmodifiableMap(names);
+        }
+    }
+
+    private final Loader loader;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    CategoryCache(Loader loader) {
+        this.loader = loader;
+    }
+
+    /** All categories in name order, as copies the caller may modify. */
+    List<Category> getAll() throws SQLException {
+        List<Category> sorted = current().sorted;
+        List<Category> copies = new ArrayList<>(sorted.size());
+        for (Category category : sorted) {
+            copies.add(copy(category));
+        }
+        return copies;
+    }
+
+    /** The category with this id, or {@code null} if the cached table has none. */
+    Category getById(int id) throws SQLException {
+        return copy(current().byId.get(id));
+    }
+
+    /** The category with this name (ignoring case, like the MySQL collation), or {@code null}. */
+    Category getByName(String name) throws SQLException {
+        return name == null ? null : copy(current().byName.get(nameKey(name)));
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    void invalidate() {
+        version.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private Snapshot current() throws SQLException {
+        Snapshot cached = snapshot.get();
+        long currentVersion = version.get();
+        if (cached != null && cached.version == currentVersion) {
+            return cached;
+        }
+        Snapshot loaded = new Snapshot(currentVersion, loader.load());
+        snapshot.compareAndSet(cached, loaded);
+        return loaded;
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static Category copy(Category category) {
+        if (category == null) {
+            return null;
+        }
+        Category copy = new Category(category.getId(), category.getName());
+        copy.setVersion(category.getVersion());
+        return copy;
+    }
+}
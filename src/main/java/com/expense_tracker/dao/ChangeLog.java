@@ -0,0 +1,171 @@
+package com.expense_tracker.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Row versions for optimistic locking and change polling.
+ *
+ * {@code change_versions} holds one counter per versioned table. Every write
+ * transaction bumps its table's counter once, stamps the rows it inserts or
+ * updates with the new value, and keeps the counter row locked until it
+ * commits. Versions are therefore handed out in commit order: once a client
+ * has read counter value {@code v}, every write up to {@code v} is visible,
+ * and {@code WHERE version > ?} finds exactly the rows changed since.
+ *
+ * Deleted expenses leave a row in {@code expense_deletions} so pollers learn
+ * about deletes as well. Tombstones older than a retention period are
+ * pruned; the highest pruned version is kept as the
+ * {@code expense_deletions} counter, and a poller that is further behind has
+ * to reload. Categories have no tombstones; the table is small enough to
+ * reload whenever its counter moves.
+ */
+final class ChangeLog {
+    static final String EXPENSES = "expenses";
+    static final String CATEGORIES = "categories";
+    // Not a table counter: the highest version whose tombstones were pruned
+    static final String PRUNED_EXPENSE_DELETIONS = "expense_deletions";
+
+    static final String CREATE_VERSIONS_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS change_versions (
+            table_name VARCHAR(30) PRIMARY KEY,
+            version BIGINT NOT NULL DEFAULT 0
+        )""";
+    static final String CREATE_EXPENSE_DELETIONS_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS expense_deletions (
+            id INT PRIMARY KEY,
+            version BIGINT NOT NULL,
+            deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )""";
+
+    private static final String SEED_SQL =
+        "INSERT IGNORE INTO change_versions (table_name) VALUES ('" + EXPENSES + "'), ('" + CATEGORIES + "')";
+    private static final String INCREMENT_SQL =
+        "UPDATE change_versions SET version = version + 1 WHERE table_name = ?";
+    private static final String SELECT_VERSION_SQL = "SELECT version FROM change_versions WHERE table_name = ?";
+    private static final String SELECT_ALL_SQL = "SELECT table_name, version FROM change_versions";
+    // Ids can come back after a MySQL restart (InnoDB recomputes AUTO_INCREMENT
+    // from MAX(id)), so an id may be deleted more than once
+    private static final String INSERT_DELETION_SQL = """
+        INSERT INTO expense_deletions (id, version) VALUES (?, ?)
+        ON DUPLICATE KEY UPDATE version = VALUES(version), deleted_at = CURRENT_TIMESTAMP""";
+    private static final String SELECT_PRUNABLE_SQL =
+        "SELECT MAX(version) FROM expense_deletions WHERE deleted_at < ?";
+    private static final String DELETE_PRUNABLE_SQL = "DELETE FROM expense_deletions WHERE version <= ?";
+    private static final String RAISE_PRUNED_SQL = """
+        INSERT INTO change_versions (table_name, version) VALUES (?, ?)
+        ON DUPLICATE KEY UPDATE version = GREATEST(version, VALUES(version))""";
+
+    /**
+     * Creates the counters and tombstone table and adds a version column to
+     * the versioned tables. Used once, by the schema migration that
+     * introduces versions; existing rows start at version 0.
+     */
+    static void install(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSIONS_TABLE_SQL);
+            stmt.execute(CREATE_EXPENSE_DELETIONS_TABLE_SQL);
+            stmt.executeUpdate(SEED_SQL);
+        }
+        SchemaMigrator.addColumnIfMissing(conn, EXPENSES, "version", "BIGINT NOT NULL DEFAULT 0");
+        SchemaMigrator.addColumnIfMissing(conn, CATEGORIES, "version", "BIGINT NOT NULL DEFAULT 0");
+        SchemaMigrator.createIndexIfMissing(conn, EXPENSES, "idx_expenses_version", "version");
+        SchemaMigrator.createIndexIfMissing(conn, "expense_deletions", "idx_expense_deletions_version", "version");
+    }
+
+    /**
+     * Allocates the version for the caller's write transaction on {@code table}.
+     * The counter stays locked until that transaction ends, so the caller
+     * should take its other row locks first and commit soon after.
+     */
+    static long next(Connection conn, String table) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INCREMENT_SQL)) {
+            pstmt.setString(1, table);
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("No change counter for table " + table);
+            }
+        }
+        return current(conn, table);
+    }
+
+    /** The version of the latest committed write to {@code table}. */
+    static long current(Connection conn, String table) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_VERSION_SQL)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No change counter for table " + table);
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /** The current version of every versioned table, by table name. */
+    static Map<String, Long> currentAll(Connection conn) throws SQLException {
+        Map<String, Long> versions = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                versions.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return versions;
+    }
+
+    /** Records that expense {@code id} was deleted by the write with {@code version}. */
+    static void recordExpenseDeletion(Connection conn, int id, long version) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_DELETION_SQL)) {
+            pstmt.setInt(1, id);
+            pstmt.setLong(2, version);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes the tombstones recorded before {@code cutoff} and raises the
+     * {@link #PRUNED_EXPENSE_DELETIONS} counter to the newest of them, in
+     * one transaction.
+     *
+     * @return the number of tombstones deleted
+     */
+    static int pruneExpenseDeletions(Connection conn, Timestamp cutoff) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            long newest;
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_PRUNABLE_SQL)) {
+                pstmt.setTimestamp(1, cutoff);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    newest = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+            int deleted = 0;
+            if (newest > 0) {
+                try (PreparedStatement delete = conn.prepareStatement(DELETE_PRUNABLE_SQL);
+                     PreparedStatement raise = conn.prepareStatement(RAISE_PRUNED_SQL)) {
+                    delete.setLong(1, newest);
+                    deleted = delete.executeUpdate();
+                    raise.setString(1, PRUNED_EXPENSE_DELETIONS);
+                    raise.setLong(2, newest);
+                    raise.executeUpdate();
+                }
+            }
+            conn.commit();
+            return deleted;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private ChangeLog() {}
+}
@@ -0,0 +1,9 @@
+package com.expense_tracker.dao;
+
+/**
+ * The latest committed write version of the expenses and categories tables.
+ * A client that remembers these only has to re-read a table once its
+ * version has moved.
+ */
+public record ChangeVersions(long expenses, long categories) {
+}
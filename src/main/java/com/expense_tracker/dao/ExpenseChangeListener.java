@@ -0,0 +1,25 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Expense;
+
+import java.util.List;
+
+/**
+ * Notified by {@link ExpensetrackerAppDAO} after expense writes commit, e.g.
+ * to keep an in-memory copy of the table current.
+ *
+ * Callbacks run on the writing thread, after the database transaction has
+ * committed, and must not block for long. Exceptions they throw are logged
+ * and do not affect the write.
+ */
+public interface ExpenseChangeListener {
+
+    /** Expenses were inserted; their generated ids are set. */
+    void expensesAdded(List<Expense> expenses);
+
+    /** An expense was updated to the given values. */
+    void expenseUpdated(Expense expense);
+
+    /** The expense with this id was deleted. */
+    void expenseDeleted(int id);
+}
@@ -0,0 +1,22 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Expense;
+
+import java.util.List;
+
+/**
+ * Expense writes committed after a given version, as returned by
+ * {@link ExpensetrackerAppDAO#getExpenseChangesSince}.
+ *
+ * {@code changed} holds the current values of inserted and updated expenses,
+ * {@code deletedIds} the ids of deleted ones. When more rows changed than the
+ * caller's limit, {@code complete} is {@code false} and both lists are empty;
+ * the caller should reload whatever it shows instead. Either way
+ * {@code version} is the version to poll from next.
+ */
+public record ExpenseChanges(long version, List<Expense> changed, List<Integer> deletedIds, boolean complete) {
+
+    public boolean isEmpty() {
+        return complete && changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,251 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind inserts for high-rate expense ingestion.
+ *
+ * {@link #submit} only enqueues the expense; a background writer inserts
+ * queued expenses through {@link ExpensetrackerAppDAO#addExpenses} once
+ * {@code maxBatchSize} of them are waiting or the oldest has waited
+ * {@code maxDelayMillis}. Each DAO batch commits on its own, and the future
+ * returned by {@code submit} completes with the generated id once the
+ * expense's batch is committed, or exceptionally if that batch failed.
+ * An expense whose future is cancelled before its batch is written is skipped.
+ *
+ * When the queue is full {@code submit} blocks until the writer catches up.
+ * {@link #close()} writes everything still queued; it also runs from
+ * {@link DatabaseConnection#shutdown()}, before the pool closes.
+ */
+public class ExpenseWriteBehindQueue implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = Integer.getInteger("expense.writeBehind.capacity", 10_000);
+    private static final int DEFAULT_MAX_BATCH_SIZE = Integer.getInteger("expense.writeBehind.maxBatchSize", 5_000);
+    private static final long DEFAULT_MAX_DELAY_MILLIS = Long.getLong("expense.writeBehind.maxDelayMs", 50);
+
+    private final ExpensetrackerAppDAO dao;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread writer;
+    private final Runnable shutdownTask = this::close;
+    // Serialises enqueueing so sequence numbers follow queue order and
+    // nothing can be enqueued once close() has switched the queue to closed.
+    // Producers only contend on it when the queue is full and they block anyway.
+    private final ReentrantLock submitLock = new ReentrantLock();
+    private volatile boolean closed;
+    // Sequence number of the newest expense enqueued (guarded by submitLock)
+    // and of the newest one written, failed or skipped (guarded by settledLock)
+    private long submitted;
+    private long settled;
+    private final ReentrantLock settledLock = new ReentrantLock();
+    private final Condition settledChanged = settledLock.newCondition();
+
+    public ExpenseWriteBehindQueue(ExpensetrackerAppDAO dao) {
+        this(dao, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public ExpenseWriteBehindQueue(ExpensetrackerAppDAO dao, int capacity, int maxBatchSize, long maxDelayMillis) {
+        if (capacity < 1 || maxBatchSize < 1 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("capacity and maxBatchSize must be positive, maxDelayMillis not negative");
+        }
+        this.dao = dao;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writer = new Thread(this::writeLoop, "expense-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        DatabaseConnection.addShutdownTask(shutdownTask);
+    }
+
+    /**
+     * Queues {@code expense} for insertion, blocking while the queue is full.
+     *
+     * @return completes with the generated id once the expense is committed
+     * @throws IllegalStateException if the queue has been closed
+     */
+    public CompletableFuture<Integer> submit(Expense expense) throws InterruptedException {
+        submitLock.lockInterruptibly();
+        Pending pending;
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue has been closed");
+            }
+            pending = new Pending(expense, submitted + 1);
+            queue.put(pending);
+            submitted = pending.sequence;
+        } finally {
+            submitLock.unlock();
+        }
+        return pending.future;
+    }
+
+    /** Expenses queued and not yet handed to the database. */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Waits until every expense submitted so far has been written, has failed
+     * or was skipped because its future was cancelled.
+     */
+    public void flush() {
+        long target;
+        submitLock.lock();
+        try {
+            target = submitted;
+        } finally {
+            submitLock.unlock();
+        }
+        settledLock.lock();
+        try {
+            while (settled < target) {
+                settledChanged.awaitUninterruptibly();
+            }
+        } finally {
+            settledLock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting expenses and waits until everything queued is written.
+     */
+    @Override
+    public void close() {
+        submitLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            submitLock.unlock();
+        }
+        DatabaseConnection.removeShutdownTask(shutdownTask);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(Math.min(maxBatchSize, 10_000));
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                // Only close() stops the writer; keep draining
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Adds queued expenses to {@code batch} until it is full, the oldest has
+     * waited the maximum delay, or the queue is closing.
+     */
+    private void fillBatch(List<Pending> batch) throws InterruptedException {
+        long deadline = batch.get(0).enqueuedAt + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || closed || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Writes {@code batch} one DAO batch (one database transaction) at a time,
+     * so a failure only fails the expenses of the transaction that rolled back.
+     */
+    private void write(List<Pending> batch) {
+        int chunkSize = dao.getBatchSize();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<Pending> range = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            List<Pending> chunk = new ArrayList<>(chunkSize);
+            List<Expense> expenses = new ArrayList<>(chunkSize);
+            for (Pending pending : range) {
+                if (!pending.future.isDone()) {
+                    chunk.add(pending);
+                    expenses.add(pending.expense);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insert(chunk, expenses);
+            }
+            settle(range.get(range.size() - 1).sequence);
+        }
+    }
+
+    private void insert(List<Pending> chunk, List<Expense> expenses) {
+        try {
+            dao.addExpenses(expenses);
+            for (Pending pending : chunk) {
+                pending.future.complete(pending.expense.getId());
+            }
+        } catch (SQLException | RuntimeException e) {
+            for (Pending pending : chunk) {
+                // Ids and versions may have been assigned before the commit failed
+                pending.expense.setId(0);
+                pending.expense.setVersion(0);
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void settle(long sequence) {
+        settledLock.lock();
+        try {
+            settled = sequence;
+            settledChanged.signalAll();
+        } finally {
+            settledLock.unlock();
+        }
+    }
+
+    private static final class Pending {
+        private final Expense expense;
+        private final long sequence;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        private Pending(Expense expense, long sequence) {
+            this.expense = expense;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,259 +1,427 @@
 package com.expense_tracker.dao;
 
+import com.expense_tracker.metrics.DaoMetrics;
+import com.expense_tracker.metrics.OperationStats;
 import com.expense_tracker.model.Category;
 import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Money;
 import com.expense_tracker.model.Transaction;
 import com.expense_tracker.util.DatabaseConnection;
 
 import java.sql.*;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Data access for transactions, categories and expenses.
+ *
+ * Every public method that may touch the database records its latency, rows
+ * returned and failures in {@link DaoMetrics} under the method name. Methods
+ * that report a failure by returning {@code false} or an empty list count it
+ * as an error too. Streams are timed until the cursor is open.
+ */
 public class ExpensetrackerAppDAO {
     
-    private static final String CREATE_TABLE_SQL = """
-        CREATE TABLE IF NOT EXISTS transactions (
-            id INT AUTO_INCREMENT PRIMARY KEY,
-            date DATE NOT NULL,
-            type ENUM('INCOME', 'EXPENSE') NOT NULL,
-            category VARCHAR(50) NOT NULL,
-            amount DECIMAL(10, 2) NOT NULL,
-            description TEXT,
-            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-        )
-    """;
-
-    private static final String DROP_EXPENSES_TABLE = "DROP TABLE IF EXISTS expenses";
-    private static final String DROP_CATEGORIES_TABLE = "DROP TABLE IF EXISTS categories";
-    private static final String DROP_TRANSACTIONS_TABLE = "DROP TABLE IF EXISTS transactions";
-
-    private static final String CREATE_CATEGORIES_TABLE_SQL = """
-        CREATE TABLE IF NOT EXISTS categories (
-            id INT AUTO_INCREMENT PRIMARY KEY,
-            name VARCHAR(50) NOT NULL UNIQUE,
-            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-        )""";
-
-    private static final String CREATE_EXPENSES_TABLE_SQL = """
-        CREATE TABLE IF NOT EXISTS expenses (
-            id INT AUTO_INCREMENT PRIMARY KEY,
-            name VARCHAR(100) NOT NULL,
-            category_id INT NOT NULL,
-            amount DECIMAL(10, 2) NOT NULL,
-            description TEXT,
-            date DATE NOT NULL,
-            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-            FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE RESTRICT
-        )""";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final DaoMetrics METRICS = DaoMetrics.get();
+    private static final ToLongFunction<Object> NO_ROWS = result -> 0;
+    private static final ToLongFunction<Object> ONE_ROW = result -> 1;
+    private static final ToLongFunction<Object> ROW_IF_FOUND = result -> result == null ? 0 : 1;
+    private static final ToLongFunction<Boolean> ROW_IF_TRUE = result -> result ? 1 : 0;
+
+    private static final String INSERT_TRANSACTION_SQL =
+        "INSERT INTO transactions (date, type, category, amount, description) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_EXPENSE_SQL =
+        "INSERT INTO expenses (name, category_id, amount, description, date, version) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_ALL_TRANSACTIONS_SQL = "SELECT * FROM transactions ORDER BY date DESC";
+    private static final String SELECT_ALL_EXPENSES_SQL =
+        "SELECT e.*, c.name as category_name FROM expenses e JOIN categories c ON e.category_id = c.id ORDER BY e.date DESC";
+
+    private static final String SELECT_FIRST_EXPENSE_PAGE_SQL = """
+        SELECT e.*, c.name as category_name
+        FROM expenses e
+        JOIN categories c ON e.category_id = c.id
+        ORDER BY e.date DESC, e.id DESC
+        LIMIT ?""";
+    private static final String SELECT_NEXT_EXPENSE_PAGE_SQL = """
+        SELECT e.*, c.name as category_name
+        FROM expenses e
+        JOIN categories c ON e.category_id = c.id
+        WHERE e.date < ? OR (e.date = ? AND e.id < ?)
+        ORDER BY e.date DESC, e.id DESC
+        LIMIT ?""";
+
+    // getExpensesByIds binds one of these many ids, repeating the last one, so
+    // only a few distinct statements reach the per-connection statement cache
+    private static final int[] IDS_PER_STATEMENT = {10, 50, 200};
+    private static final String[] SELECT_EXPENSES_BY_IDS_SQL = new String[IDS_PER_STATEMENT.length];
+
+    static {
+        for (int i = 0; i < IDS_PER_STATEMENT.length; i++) {
+            SELECT_EXPENSES_BY_IDS_SQL[i] = "SELECT e.*, c.name as category_name FROM expenses e "
+                + "JOIN categories c ON e.category_id = c.id WHERE e.id IN ("
+                + String.join(", ", Collections.nCopies(IDS_PER_STATEMENT[i], "?")) + ")";
+        }
+    }
+
+    // Keys only, so skipping far ahead reads just the (date, id) index
+    private static final String SELECT_FIRST_EXPENSE_KEY_SQL =
+        "SELECT id, date FROM expenses ORDER BY date DESC, id DESC LIMIT 1 OFFSET ?";
+    private static final String SELECT_NEXT_EXPENSE_KEY_SQL = """
+        SELECT id, date
+        FROM expenses
+        WHERE date < ? OR (date = ? AND id < ?)
+        ORDER BY date DESC, id DESC
+        LIMIT 1 OFFSET ?""";
+
+    private static final String SELECT_CHANGED_EXPENSES_SQL = """
+        SELECT e.*, c.name as category_name
+        FROM expenses e
+        JOIN categories c ON e.category_id = c.id
+        WHERE e.version > ? AND e.version <= ?
+        ORDER BY e.version, e.id
+        LIMIT ?""";
+    private static final String SELECT_DELETED_EXPENSES_SQL =
+        "SELECT id FROM expense_deletions WHERE version > ? AND version <= ? ORDER BY version, id LIMIT ?";
+    // Pollers further behind than this reload instead of reading tombstones
+    private static final Duration TOMBSTONE_RETENTION =
+        Duration.ofDays(Long.getLong("expense.changes.tombstoneRetentionDays", 7));
+    private static final long TOMBSTONE_PRUNE_INTERVAL_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private static final String SCAN_EXPENSES_SQL = "SELECT id, name, category_id, amount, date FROM expenses ORDER BY id";
+
+    // Integer.MIN_VALUE tells Connector/J to stream a forward-only result set row by
+    // row instead of buffering it; other drivers take a positive fetch size instead
+    private static final int STREAMING_FETCH_SIZE = Integer.getInteger("expense.db.streamFetchSize", Integer.MIN_VALUE);
+
+    /**
+     * Receives one expense row from {@link #scanExpenses} as primitive columns.
+     */
+    @FunctionalInterface
+    public interface ExpenseRowVisitor {
+        void visit(int id, String name, int categoryId, long amountCents, int epochDay);
+    }
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private final CategoryCache categoryCache = new CategoryCache(this::loadAllCategories);
+    private final TransactionTotals transactionTotals = new TransactionTotals();
+    private final List<ExpenseChangeListener> expenseListeners = new CopyOnWriteArrayList<>();
+    // Categories version the cache last saw; see getChangeVersions()
+    private final AtomicLong seenCategoryVersion = new AtomicLong();
+    private final AtomicLong nextTombstonePruneAt = new AtomicLong(System.nanoTime());
 
     public ExpensetrackerAppDAO() {
         initializeDatabase();
+        transactionTotals.startReconciliation(Long.getLong("expense.totals.reconcileMinutes", 0));
+    }
+
+    public void addExpenseChangeListener(ExpenseChangeListener listener) {
+        expenseListeners.add(listener);
+    }
+
+    public void removeExpenseChangeListener(ExpenseChangeListener listener) {
+        expenseListeners.remove(listener);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets how many rows {@link #addExpenses} and {@link #addTransactions} send
+     * per JDBC batch. Each batch is committed in its own database transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
     }
 
     private void initializeDatabase() {
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseConnection.getConnection()) {
             
-            // Drop existing tables in the right order to avoid foreign key constraints
-            stmt.execute("SET FOREIGN_KEY_CHECKS=0");
-            
-            // Execute each DROP statement separately
-            try {
-                stmt.execute(DROP_EXPENSES_TABLE);
-                stmt.execute(DROP_TRANSACTIONS_TABLE);
-                stmt.execute(DROP_CATEGORIES_TABLE);
-            } catch (SQLException e) {
-                // Ignore errors if tables don't exist yet
-                System.out.println("Note: Some tables didn't exist to drop: " + e.getMessage());
-            }
+            // Apply any pending schema migrations (including the default
+            // categories); a single version check once the schema is current
+            int applied = new SchemaMigrator().migrate(conn);
             
-            // Create tables in the right order
-            stmt.execute(CREATE_CATEGORIES_TABLE_SQL);
-            stmt.execute(CREATE_EXPENSES_TABLE_SQL);
-            stmt.execute(CREATE_TABLE_SQL);
-            stmt.execute("SET FOREIGN_KEY_CHECKS=1");
-            
-            // Insert default categories if they don't exist
-            insertDefaultCategories(conn);
+            seenCategoryVersion.set(ChangeLog.current(conn, ChangeLog.CATEGORIES));
             
+            System.out.printf("Database initialized in %d ms (%d migrations applied)%n",
+                (System.nanoTime() - start) / 1_000_000, applied);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
 
-    private void insertDefaultCategories(Connection conn) throws SQLException {
-        String[] defaultCategories = {
-            "Food & Dining", "Shopping", "Transportation", "Bills & Utilities",
-            "Housing", "Entertainment", "Healthcare", "Education",
-            "Gifts & Donations", "Travel", "Personal Care", "Pets", "Other"
-        };
-
-        String checkSql = "SELECT COUNT(*) FROM categories WHERE name = ?";
-        String insertSql = "INSERT IGNORE INTO categories (name) VALUES (?)";
-        
-        try (PreparedStatement checkStmt = conn.prepareStatement(checkSql);
-             PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-            
-            for (String categoryName : defaultCategories) {
-                checkStmt.setString(1, categoryName);
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (rs.next() && rs.getInt(1) == 0) {
-                        insertStmt.setString(1, categoryName);
-                        insertStmt.executeUpdate();
-                    }
-                }
-            }
-        }
-    }
-
     // Transaction CRUD operations
     public boolean addTransaction(Transaction transaction) {
-        String sql = "INSERT INTO transactions (date, type, category, amount, description) VALUES (?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDate(1, Date.valueOf(transaction.getDate()));
-            pstmt.setString(2, transaction.getType().toString());
-            pstmt.setString(3, transaction.getCategory());
-            pstmt.setDouble(4, transaction.getAmount());
-            pstmt.setString(5, transaction.getDescription());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-            
+        try {
+            return timed("addTransaction", ROW_IF_TRUE, () -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+                    
+                    // The insert and the running total change commit together
+                    conn.setAutoCommit(false);
+                    try {
+                        bindTransaction(pstmt, transaction);
+                        
+                        int rowsAffected = pstmt.executeUpdate();
+                        if (rowsAffected == 0) {
+                            conn.rollback();
+                            return false;
+                        }
+                        commitTransactions(conn, List.of(transaction));
+                        return true;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    /**
+     * Inserts transactions using JDBC batching, one database transaction per
+     * batch of {@link #getBatchSize()} rows. Generated IDs are written back onto
+     * each transaction. Batches committed before a failure stay committed.
+     *
+     * @return the number of rows inserted
+     */
+    public int addTransactions(Collection<Transaction> transactions) throws SQLException {
+        return timed("addTransactions", Integer::longValue, () -> {
+            return insertInBatches(INSERT_TRANSACTION_SQL, transactions, (conn, chunk) -> { },
+                this::bindTransaction, Transaction::setId, this::commitTransactions);
+        });
+    }
+
+    /**
+     * Adds the inserted rows to the running totals and monthly rollup and commits, all on the
+     * inserting connection so the totals never disagree with the rows.
+     */
+    private void commitTransactions(Connection conn, List<Transaction> inserted) throws SQLException {
+        Map<Transaction.TransactionType, Long> deltaCents = new EnumMap<>(Transaction.TransactionType.class);
+        Map<Transaction.TransactionType, Integer> rowCounts = new EnumMap<>(Transaction.TransactionType.class);
+        for (Transaction transaction : inserted) {
+            deltaCents.merge(transaction.getType(), transaction.getAmountCents(), Long::sum);
+            rowCounts.merge(transaction.getType(), 1, Integer::sum);
+        }
+        for (Map.Entry<Transaction.TransactionType, Long> delta : deltaCents.entrySet()) {
+            transactionTotals.increment(conn, delta.getKey(), delta.getValue(), rowCounts.get(delta.getKey()));
+        }
+        MonthlyRollup.applyTransactions(conn, inserted);
+        conn.commit();
+    }
+
+    private void bindTransaction(PreparedStatement pstmt, Transaction transaction) throws SQLException {
+        pstmt.setDate(1, Date.valueOf(transaction.getDate()));
+        pstmt.setString(2, transaction.getType().toString());
+        pstmt.setString(3, transaction.getCategory());
+        pstmt.setBigDecimal(4, Money.toDecimal(transaction.getAmountCents()));
+        pstmt.setString(5, transaction.getDescription());
+    }
+
     public List<Transaction> getAllTransactions() {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions ORDER BY date DESC";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Transaction transaction = new Transaction(
-                    rs.getInt("id"),
-                    rs.getDate("date").toLocalDate(),
-                    Transaction.TransactionType.valueOf(rs.getString("type")),
-                    rs.getString("category"),
-                    rs.getDouble("amount"),
-                    rs.getString("description")
-                );
-                transactions.add(transaction);
-            }
-            
+        try {
+            return timed("getAllTransactions", List::size, () -> {
+                List<Transaction> transactions = new ArrayList<>();
+                try (Connection conn = DatabaseConnection.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(SELECT_ALL_TRANSACTIONS_SQL)) {
+                    
+                    while (rs.next()) {
+                        transactions.add(mapTransaction(rs));
+                    }
+                }
+                return transactions;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return transactions;
     }
 
-    public double getTotalIncome() {
-        return getTransactionSum("INCOME");
+    /**
+     * Streams every transaction, newest first, without loading the table into
+     * memory. The stream holds a pooled connection until it is closed, so use
+     * it in a try-with-resources block.
+     */
+    public Stream<Transaction> streamAllTransactions() throws SQLException {
+        return timed("streamAllTransactions", NO_ROWS, () -> {
+            return streamQuery(SELECT_ALL_TRANSACTIONS_SQL, ExpensetrackerAppDAO::mapTransaction);
+        });
     }
 
-    public double getTotalExpenses() {
-        return getTransactionSum("EXPENSE");
+    /**
+     * Calls {@code visitor} for every transaction, newest first, in constant memory.
+     */
+    public void forEachTransaction(Consumer<? super Transaction> visitor) throws SQLException {
+        timed("forEachTransaction", Long::longValue, () -> {
+            try (Stream<Transaction> transactions = streamQuery(SELECT_ALL_TRANSACTIONS_SQL,
+                     ExpensetrackerAppDAO::mapTransaction)) {
+                return countingForEach(transactions, visitor);
+            }
+        });
     }
 
-    public double getBalance() {
-        return getTotalIncome() - getTotalExpenses();
+    // Read from the transaction_totals rows, so other clients' commits are included. All amounts in cents.
+    public long getTotalIncomeCents() {
+        return readTransactionTotals().getOrDefault(Transaction.TransactionType.INCOME, 0L);
     }
 
-    private double getTransactionSum(String type) {
-        String sql = "SELECT COALESCE(SUM(amount), 0) as total FROM transactions WHERE type = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, type);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble("total");
+    public long getTotalExpensesCents() {
+        return readTransactionTotals().getOrDefault(Transaction.TransactionType.EXPENSE, 0L);
+    }
+
+    public long getBalanceCents() {
+        Map<Transaction.TransactionType, Long> totals = readTransactionTotals();
+        return totals.getOrDefault(Transaction.TransactionType.INCOME, 0L)
+            - totals.getOrDefault(Transaction.TransactionType.EXPENSE, 0L);
+    }
+
+    /**
+     * Reads the running totals, which include other clients' commits; two
+     * primary-key rows instead of a SUM over the transactions table.
+     */
+    private Map<Transaction.TransactionType, Long> readTransactionTotals() {
+        try {
+            return timed("getTransactionTotals", Map::size, () -> {
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    return transactionTotals.read(conn);
                 }
-            }
-            
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            return Map.of();
         }
-        
-        return 0.0;
+    }
+
+    /**
+     * Checks the running totals against a full SUM over the transactions table
+     * and repairs them if needed. Also runs periodically in the background
+     * when {@code expense.totals.reconcileMinutes} is set; off by default,
+     * since it holds back every client's transaction writes while it sums.
+     *
+     * @return {@code true} if the totals were already correct
+     */
+    public boolean reconcileTotals() throws SQLException {
+        return timed("reconcileTotals", NO_ROWS, () -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                return transactionTotals.reconcile(conn);
+            }
+        });
     }
 
     public List<Transaction> getTransactionsByDateRange(LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM transactions WHERE date BETWEEN ? AND ? ORDER BY date DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDate(1, Date.valueOf(startDate));
-            pstmt.setDate(2, Date.valueOf(endDate));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Transaction transaction = new Transaction(
-                        rs.getInt("id"),
-                        rs.getDate("date").toLocalDate(),
-                        Transaction.TransactionType.valueOf(rs.getString("type")),
-                        rs.getString("category"),
-                        rs.getDouble("amount"),
-                        rs.getString("description")
-                    );
-                    transactions.add(transaction);
+        try {
+            return timed("getTransactionsByDateRange", List::size, () -> {
+                List<Transaction> transactions = new ArrayList<>();
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    
+                    pstmt.setDate(1, Date.valueOf(startDate));
+                    pstmt.setDate(2, Date.valueOf(endDate));
+                    
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            transactions.add(mapTransaction(rs));
+                        }
+                    }
                 }
-            }
-            
+                return transactions;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return transactions;
     }
 
+    /**
+     * Rows of {type, category, total in cents (Long)}.
+     */
     public List<Object[]> getCategoryWiseSummary() {
-        List<Object[]> summary = new ArrayList<>();
-        String sql = """
-            SELECT type, category, SUM(amount) as total 
-            FROM transactions 
-            GROUP BY type, category 
-            ORDER BY type, total DESC
-        """;
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Object[] row = new Object[3];
-                row[0] = rs.getString("type");
-                row[1] = rs.getString("category");
-                row[2] = rs.getDouble("total");
-                summary.add(row);
-            }
-            
+        try {
+            return timed("getCategoryWiseSummary", List::size, () -> {
+                List<Object[]> summary = new ArrayList<>();
+                // Summed from the monthly rollup instead of every transaction row
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(MonthlyRollup.CATEGORY_WISE_SUMMARY_SQL);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    
+                    while (rs.next()) {
+                        Object[] row = new Object[3];
+                        row[0] = rs.getString("type");
+                        row[1] = rs.getString("category");
+                        row[2] = Money.toCents(rs.getBigDecimal("total"));
+                        summary.add(row);
+                    }
+                }
+                return summary;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return summary;
     }
 
     // Category CRUD operations
     public List<Category> getAllCategories() throws SQLException {
+        return timed("getAllCategories", List::size, () -> {
+            return categoryCache.getAll();
+        });
+    }
+    
+    public Category getCategoryById(int id) throws SQLException {
+        return timed("getCategoryById", ROW_IF_FOUND, () -> {
+            Category category = categoryCache.getById(id);
+            if (category == null) {
+                // Possibly added by another client since the cache was loaded
+                category = queryCategoryById(id);
+                if (category != null) {
+                    categoryCache.invalidate();
+                }
+            }
+            return category;
+        });
+    }
+    
+    /**
+     * Looks a category up by name, ignoring case as the MySQL collation does.
+     */
+    public Category getCategoryByName(String name) throws SQLException {
+        return timed("getCategoryByName", ROW_IF_FOUND, () -> {
+            return categoryCache.getByName(name);
+        });
+    }
+    
+    private List<Category> loadAllCategories() throws SQLException {
         List<Category> categories = new ArrayList<>();
         String sql = "SELECT * FROM categories ORDER BY name";
         
@@ -265,13 +433,14 @@ public class ExpensetrackerAppDAO {
                 Category category = new Category();
                 category.setId(rs.getInt("id"));
                 category.setName(rs.getString("name"));
+                category.setVersion(rs.getLong("version"));
                 categories.add(category);
             }
         }
         return categories;
     }
     
-    public Category getCategoryById(int id) throws SQLException {
+    private Category queryCategoryById(int id) throws SQLException {
         String sql = "SELECT * FROM categories WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
@@ -284,6 +453,7 @@ public class ExpensetrackerAppDAO {
                     Category category = new Category();
                     category.setId(rs.getInt("id"));
                     category.setName(rs.getString("name"));
+                    category.setVersion(rs.getLong("version"));
                     return category;
                 }
             }
@@ -292,241 +462,918 @@ public class ExpensetrackerAppDAO {
     }
     
     public boolean addCategory(Category category) throws SQLException {
-        String sql = "INSERT INTO categories (name) VALUES (?)";
+        String sql = "INSERT INTO categories (name, version) VALUES (?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, category.getName());
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating category failed, no rows affected.");
-            }
-            
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    category.setId(generatedKeys.getInt(1));
-                    return true;
-                } else {
-                    throw new SQLException("Creating category failed, no ID obtained.");
+        try {
+            return timed("addCategory", ROW_IF_TRUE, () -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    
+                    conn.setAutoCommit(false);
+                    try {
+                        long version = ChangeLog.next(conn, ChangeLog.CATEGORIES);
+                        pstmt.setString(1, category.getName());
+                        pstmt.setLong(2, version);
+                        
+                        int affectedRows = pstmt.executeUpdate();
+                        
+                        if (affectedRows == 0) {
+                            throw new SQLException("Creating category failed, no rows affected.");
+                        }
+                        
+                        int id;
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (generatedKeys.next()) {
+                                id = generatedKeys.getInt(1);
+                            } else {
+                                throw new SQLException("Creating category failed, no ID obtained.");
+                            }
+                        }
+                        conn.commit();
+                        category.setId(id);
+                        category.setVersion(version);
+                        return true;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    }
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            categoryCache.invalidate();
         }
     }
     
+    /**
+     * Renames a category, provided it is still at the version it was read at.
+     * On success the category's version is advanced.
+     *
+     * @return {@code false} if the category no longer exists
+     * @throws OptimisticLockException if another client changed it first
+     */
     public boolean updateCategory(Category category) throws SQLException {
-        String sql = "UPDATE categories SET name = ? WHERE id = ?";
+        return timed("updateCategory", ROW_IF_TRUE, () -> {
+            String sql = "UPDATE categories SET name = ?, version = ? WHERE id = ? AND version = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, category.getName());
-            pstmt.setInt(2, category.getId());
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        }
+                conn.setAutoCommit(false);
+                long version;
+                int affectedRows;
+                try {
+                    version = ChangeLog.next(conn, ChangeLog.CATEGORIES);
+                    pstmt.setString(1, category.getName());
+                    pstmt.setLong(2, version);
+                    pstmt.setInt(3, category.getId());
+                    pstmt.setLong(4, category.getVersion());
+                
+                    affectedRows = pstmt.executeUpdate();
+                    if (affectedRows > 0) {
+                        conn.commit();
+                    } else {
+                        conn.rollback();
+                    }
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+                if (affectedRows == 0) {
+                    if (queryCategoryById(category.getId()) != null) {
+                        throw new OptimisticLockException("Category \"" + category.getName()
+                            + "\" was changed by someone else after it was loaded.");
+                    }
+                    return false;
+                }
+                category.setVersion(version);
+                return true;
+            } finally {
+                categoryCache.invalidate();
+            }
+        });
     }
     
     public boolean deleteCategory(int id) throws SQLException {
-        // First, check if there are any expenses associated with this category
-        String checkSql = "SELECT COUNT(*) FROM expenses WHERE category_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
+        return timed("deleteCategory", ROW_IF_TRUE, () -> {
+            // First, check if there are any expenses associated with this category
+            String checkSql = "SELECT COUNT(*) FROM expenses WHERE category_id = ?";
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
             
-            checkStmt.setInt(1, id);
-            try (ResultSet rs = checkStmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    throw new SQLException("Cannot delete category: There are expenses associated with this category.");
+                checkStmt.setInt(1, id);
+                try (ResultSet rs = checkStmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) > 0) {
+                        throw new SQLException("Cannot delete category: There are expenses associated with this category.");
+                    }
                 }
             }
-        }
         
-        // If no expenses are associated, proceed with deletion
-        String sql = "DELETE FROM categories WHERE id = ?";
+            // If no expenses are associated, proceed with deletion
+            String sql = "DELETE FROM categories WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, id);
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        }
+                conn.setAutoCommit(false);
+                try {
+                    ChangeLog.next(conn, ChangeLog.CATEGORIES);
+                    pstmt.setInt(1, id);
+                
+                    int affectedRows = pstmt.executeUpdate();
+                    if (affectedRows > 0) {
+                        conn.commit();
+                    } else {
+                        conn.rollback();
+                    }
+                    return affectedRows > 0;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } finally {
+                categoryCache.invalidate();
+            }
+        });
     }
     
     // Expense CRUD operations
     public List<Expense> getAllExpenses() throws SQLException {
-        List<Expense> expenses = new ArrayList<>();
-        String sql = "SELECT e.*, c.name as category_name FROM expenses e JOIN categories c ON e.category_id = c.id ORDER BY e.date DESC";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+        return timed("getAllExpenses", List::size, () -> {
+            List<Expense> expenses = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_EXPENSES_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
             
-            while (rs.next()) {
-                Expense expense = new Expense();
-                expense.setId(rs.getInt("id"));
-                expense.setName(rs.getString("name"));
-                expense.setCategoryId(rs.getInt("category_id"));
-                expense.setCategoryName(rs.getString("category_name"));
-                expense.setAmount(rs.getBigDecimal("amount"));
-                expense.setDescription(rs.getString("description"));
-                expense.setDate(rs.getDate("date").toLocalDate());
-                expenses.add(expense);
+                while (rs.next()) {
+                    expenses.add(mapExpense(rs));
+                }
             }
-        }
-        return expenses;
+            return expenses;
+        });
     }
     
-    public Expense getExpenseById(int id) throws SQLException {
-        String sql = "SELECT e.*, c.name as category_name FROM expenses e JOIN categories c ON e.category_id = c.id WHERE e.id = ?";
+    /**
+     * Streams every expense, newest first, without loading the table into
+     * memory. The stream holds a pooled connection until it is closed, so use
+     * it in a try-with-resources block.
+     */
+    public Stream<Expense> streamAllExpenses() throws SQLException {
+        return timed("streamAllExpenses", NO_ROWS, () -> {
+            return streamQuery(SELECT_ALL_EXPENSES_SQL, ExpensetrackerAppDAO::mapExpense);
+        });
+    }
+
+    /**
+     * Calls {@code visitor} for every expense, newest first, in constant memory.
+     */
+    public void forEachExpense(Consumer<? super Expense> visitor) throws SQLException {
+        timed("forEachExpense", Long::longValue, () -> {
+            try (Stream<Expense> expenses = streamQuery(SELECT_ALL_EXPENSES_SQL, ExpensetrackerAppDAO::mapExpense)) {
+                return countingForEach(expenses, visitor);
+            }
+        });
+    }
+    
+    /**
+     * Streams every expense in id order as primitive columns, without creating
+     * an {@link Expense} per row. Used to load in-memory snapshots of the table.
+     */
+    public void scanExpenses(ExpenseRowVisitor visitor) throws SQLException {
+        timed("scanExpenses", Long::longValue, () -> {
+            long rows = 0;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(SCAN_EXPENSES_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                
+                pstmt.setFetchSize(STREAMING_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.visit(
+                            rs.getInt(1),
+                            rs.getString(2),
+                            rs.getInt(3),
+                            Money.toCents(rs.getBigDecimal(4)),
+                            (int) rs.getDate(5).toLocalDate().toEpochDay()
+                        );
+                        rows++;
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+    
+    public int countExpenses() throws SQLException {
+        return timed("countExpenses", ONE_ROW, () -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM expenses");
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
+
+    public int countTransactions() throws SQLException {
+        return timed("countTransactions", ONE_ROW, () -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM transactions");
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} expenses ordered by {@code (date DESC, id DESC)}
+     * that come after {@code after} in that order. Pass {@code null} for the
+     * first page and the last expense of the previous page for the next one.
+     * Seeking on the sort key keeps every page as cheap as the first, unlike OFFSET.
+     */
+    public List<Expense> getExpensesPage(Expense after, int limit) throws SQLException {
+        return timed("getExpensesPage", List::size, () -> {
+            List<Expense> expenses = new ArrayList<>(limit);
+            String sql = after == null ? SELECT_FIRST_EXPENSE_PAGE_SQL : SELECT_NEXT_EXPENSE_PAGE_SQL;
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, id);
+                int index = 1;
+                if (after != null) {
+                    Date afterDate = Date.valueOf(after.getDate());
+                    pstmt.setDate(index++, afterDate);
+                    pstmt.setDate(index++, afterDate);
+                    pstmt.setInt(index++, after.getId());
+                }
+                pstmt.setInt(index, limit);
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Expense expense = new Expense();
-                    expense.setId(rs.getInt("id"));
-                    expense.setName(rs.getString("name"));
-                    expense.setCategoryId(rs.getInt("category_id"));
-                    expense.setCategoryName(rs.getString("category_name"));
-                    expense.setAmount(rs.getBigDecimal("amount"));
-                    expense.setDescription(rs.getString("description"));
-                    expense.setDate(rs.getDate("date").toLocalDate());
-                    return expense;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        expenses.add(mapExpense(rs));
+                    }
                 }
             }
-        }
-        return null;
+            return expenses;
+        });
     }
     
-    public boolean addExpense(Expense expense) throws SQLException {
-        String sql = "INSERT INTO expenses (name, category_id, amount, description, date) VALUES (?, ?, ?, ?, ?)";
+    /**
+     * Returns the id and date of the expense {@code offset} rows after
+     * {@code after} in {@link #getExpensesPage} order (0 is the next row), or
+     * {@code null} if the table ends first. Used as a page cursor to jump
+     * far ahead without reading the rows in between.
+     */
+    public Expense getExpenseKeyAt(Expense after, int offset) throws SQLException {
+        return timed("getExpenseKeyAt", ROW_IF_FOUND, () -> {
+            String sql = after == null ? SELECT_FIRST_EXPENSE_KEY_SQL : SELECT_NEXT_EXPENSE_KEY_SQL;
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+                int index = 1;
+                if (after != null) {
+                    Date afterDate = Date.valueOf(after.getDate());
+                    pstmt.setDate(index++, afterDate);
+                    pstmt.setDate(index++, afterDate);
+                    pstmt.setInt(index++, after.getId());
+                }
+                pstmt.setInt(index, offset);
             
-            pstmt.setString(1, expense.getName());
-            pstmt.setInt(2, expense.getCategoryId());
-            pstmt.setBigDecimal(3, expense.getAmount());
-            pstmt.setString(4, expense.getDescription());
-            pstmt.setDate(5, Date.valueOf(expense.getDate()));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    Expense key = new Expense();
+                    key.setId(rs.getInt("id"));
+                    key.setDate(rs.getDate("date").toLocalDate());
+                    return key;
+                }
+            }
+        });
+    }
+    
+    public Expense getExpenseById(int id) throws SQLException {
+        return timed("getExpenseById", ROW_IF_FOUND, () -> {
+            String sql = "SELECT e.*, c.name as category_name FROM expenses e JOIN categories c ON e.category_id = c.id WHERE e.id = ?";
+        
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            int affectedRows = pstmt.executeUpdate();
+                pstmt.setInt(1, id);
             
-            if (affectedRows == 0) {
-                throw new SQLException("Creating expense failed, no rows affected.");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return mapExpense(rs);
+                    }
+                }
             }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the expenses with the given ids, in the order of {@code ids}.
+     * Ids that no longer exist are left out.
+     */
+    public List<Expense> getExpensesByIds(int[] ids) throws SQLException {
+        return timed("getExpensesByIds", List::size, () -> {
+            if (ids.length == 0) {
+                return new ArrayList<>();
+            }
+            int maxPerStatement = IDS_PER_STATEMENT[IDS_PER_STATEMENT.length - 1];
+            Map<Integer, Expense> byId = new HashMap<>();
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                for (int from = 0; from < ids.length; from += maxPerStatement) {
+                    int count = Math.min(ids.length - from, maxPerStatement);
+                    int size = 0;
+                    while (IDS_PER_STATEMENT[size] < count) {
+                        size++;
+                    }
+                    try (PreparedStatement pstmt = conn.prepareStatement(SELECT_EXPENSES_BY_IDS_SQL[size])) {
+                        for (int i = 0; i < IDS_PER_STATEMENT[size]; i++) {
+                            pstmt.setInt(i + 1, ids[from + Math.min(i, count - 1)]);
+                        }
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                Expense expense = mapExpense(rs);
+                                byId.put(expense.getId(), expense);
+                            }
+                        }
+                    }
+                }
+            }
+            List<Expense> expenses = new ArrayList<>(byId.size());
+            for (int id : ids) {
+                Expense expense = byId.get(id);
+                if (expense != null) {
+                    expenses.add(expense);
+                }
+            }
+            return expenses;
+        });
+    }
+
+    public boolean addExpense(Expense expense) throws SQLException {
+        return timed("addExpense", ROW_IF_TRUE, () -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(INSERT_EXPENSE_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    expense.setId(generatedKeys.getInt(1));
+                conn.setAutoCommit(false);
+                try {
+                    expense.setVersion(ChangeLog.next(conn, ChangeLog.EXPENSES));
+                    bindExpense(pstmt, expense);
+                
+                    int affectedRows = pstmt.executeUpdate();
+                
+                    if (affectedRows == 0) {
+                        throw new SQLException("Creating expense failed, no rows affected.");
+                    }
+                
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            expense.setId(generatedKeys.getInt(1));
+                        } else {
+                            throw new SQLException("Creating expense failed, no ID obtained.");
+                        }
+                    }
+                    MonthlyRollup.applyExpenses(conn, List.of(expense), 1);
+                    conn.commit();
+                    fireExpensesAdded(List.of(expense));
                     return true;
-                } else {
-                    throw new SQLException("Creating expense failed, no ID obtained.");
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
                 }
             }
+        });
+    }
+    
+    /**
+     * Inserts expenses using JDBC batching, one database transaction per batch
+     * of {@link #getBatchSize()} rows. Generated IDs are written back onto each
+     * expense. Batches committed before a failure stay committed.
+     *
+     * @return the number of rows inserted
+     */
+    public int addExpenses(Collection<Expense> expenses) throws SQLException {
+        return timed("addExpenses", Integer::longValue, () -> {
+            return insertInBatches(INSERT_EXPENSE_SQL, expenses, this::stampExpenses, this::bindExpense,
+                Expense::setId, (conn, chunk) -> {
+                    MonthlyRollup.applyExpenses(conn, chunk, 1);
+                    conn.commit();
+                    fireExpensesAdded(List.copyOf(chunk));
+                });
+        });
+    }
+
+    /**
+     * Gives a batch of new expenses the version of the transaction inserting them.
+     */
+    private void stampExpenses(Connection conn, List<Expense> chunk) throws SQLException {
+        long version = ChangeLog.next(conn, ChangeLog.EXPENSES);
+        for (Expense expense : chunk) {
+            expense.setVersion(version);
         }
     }
+
+    private void bindExpense(PreparedStatement pstmt, Expense expense) throws SQLException {
+        pstmt.setString(1, expense.getName());
+        pstmt.setInt(2, expense.getCategoryId());
+        pstmt.setBigDecimal(3, Money.toDecimal(expense.getAmountCents()));
+        pstmt.setString(4, expense.getDescription());
+        pstmt.setDate(5, Date.valueOf(expense.getDate()));
+        pstmt.setLong(6, expense.getVersion());
+    }
     
+    /**
+     * Overwrites an expense, provided it is still at the version it was read
+     * at. On success the expense's version is advanced.
+     *
+     * @return {@code false} if the expense no longer exists
+     * @throws OptimisticLockException if another client changed it first
+     */
     public boolean updateExpense(Expense expense) throws SQLException {
-        String sql = "UPDATE expenses SET name = ?, category_id = ?, amount = ?, description = ?, date = ? WHERE id = ?";
+        return timed("updateExpense", ROW_IF_TRUE, () -> {
+            String sql = "UPDATE expenses SET name = ?, category_id = ?, amount = ?, description = ?, date = ?, "
+                + "version = ? WHERE id = ? AND version = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, expense.getName());
-            pstmt.setInt(2, expense.getCategoryId());
-            pstmt.setBigDecimal(3, expense.getAmount());
-            pstmt.setString(4, expense.getDescription());
-            pstmt.setDate(5, Date.valueOf(expense.getDate()));
-            pstmt.setInt(6, expense.getId());
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        }
+                conn.setAutoCommit(false);
+                try {
+                    Expense previous = lockExpenseForUpdate(conn, expense.getId());
+                    if (previous == null) {
+                        conn.rollback();
+                        return false;
+                    }
+                    if (previous.getVersion() != expense.getVersion()) {
+                        conn.rollback();
+                        throw new OptimisticLockException("Expense \"" + expense.getName()
+                            + "\" was changed by someone else after it was loaded.");
+                    }
+                    long version = ChangeLog.next(conn, ChangeLog.EXPENSES);
+                
+                    pstmt.setString(1, expense.getName());
+                    pstmt.setInt(2, expense.getCategoryId());
+                    pstmt.setBigDecimal(3, Money.toDecimal(expense.getAmountCents()));
+                    pstmt.setString(4, expense.getDescription());
+                    pstmt.setDate(5, Date.valueOf(expense.getDate()));
+                    pstmt.setLong(6, version);
+                    pstmt.setInt(7, expense.getId());
+                    pstmt.setLong(8, expense.getVersion());
+                
+                    // The row is locked, so this matches unless the check above did not
+                    if (pstmt.executeUpdate() == 0) {
+                        throw new OptimisticLockException("Expense \"" + expense.getName()
+                            + "\" was changed by someone else after it was loaded.");
+                    }
+                    MonthlyRollup.applyExpenses(conn, List.of(previous), -1);
+                    MonthlyRollup.applyExpenses(conn, List.of(expense), 1);
+                    conn.commit();
+                    expense.setVersion(version);
+                    fireExpenseUpdated(expense);
+                    return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
     }
     
     public boolean deleteExpense(int id) throws SQLException {
-        String sql = "DELETE FROM expenses WHERE id = ?";
+        boolean deleted = timed("deleteExpense", ROW_IF_TRUE, () -> {
+            String sql = "DELETE FROM expenses WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+                conn.setAutoCommit(false);
+                try {
+                    Expense previous = lockExpenseForUpdate(conn, id);
+                    if (previous == null) {
+                        conn.rollback();
+                        return false;
+                    }
+                
+                    pstmt.setInt(1, id);
+                
+                    int affectedRows = pstmt.executeUpdate();
+                    ChangeLog.recordExpenseDeletion(conn, id, ChangeLog.next(conn, ChangeLog.EXPENSES));
+                    MonthlyRollup.applyExpenses(conn, List.of(previous), -1);
+                    conn.commit();
+                    if (affectedRows > 0) {
+                        fireExpenseDeleted(id);
+                    }
+                    return affectedRows > 0;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
+        if (deleted) {
+            pruneTombstonesIfDue();
+        }
+        return deleted;
+    }
+
+    /**
+     * Drops tombstones older than {@code expense.changes.tombstoneRetentionDays}
+     * (default 7), at most once an hour per process.
+     */
+    private void pruneTombstonesIfDue() {
+        long now = System.nanoTime();
+        long due = nextTombstonePruneAt.get();
+        if (now - due < 0 || !nextTombstonePruneAt.compareAndSet(due, now + TOMBSTONE_PRUNE_INTERVAL_NANOS)) {
+            return;
+        }
+        try {
+            timed("pruneTombstones", Integer::longValue, () -> {
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    return ChangeLog.pruneExpenseDeletions(conn,
+                        Timestamp.from(Instant.now().minus(TOMBSTONE_RETENTION)));
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Change polling
+    /**
+     * The latest committed write version of the expenses and categories
+     * tables: one primary-key read, cheap enough to poll every few seconds.
+     * When the categories version has moved, for instance because another
+     * client renamed one, the category cache is dropped as well.
+     */
+    public ChangeVersions getChangeVersions() throws SQLException {
+        return timed("getChangeVersions", ONE_ROW, () -> {
+            Map<String, Long> versions;
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                versions = ChangeLog.currentAll(conn);
+            }
+            long categories = versions.getOrDefault(ChangeLog.CATEGORIES, 0L);
+            if (seenCategoryVersion.getAndSet(categories) != categories) {
+                categoryCache.invalidate();
+            }
+            return new ChangeVersions(versions.getOrDefault(ChangeLog.EXPENSES, 0L), categories);
+        });
+    }
+
+    /**
+     * Expenses inserted, updated or deleted after {@code version}, by any
+     * client. Start from {@link ChangeVersions#expenses()} read before loading
+     * the data being kept current, then poll from the returned version.
+     * If more than {@code limit} rows changed, or {@code version} is older
+     * than the pruned tombstones, an incomplete result is returned instead
+     * of the rows.
+     */
+    public ExpenseChanges getExpenseChangesSince(long version, int limit) throws SQLException {
+        return timed("getExpenseChangesSince",
+                changes -> changes.changed().size() + changes.deletedIds().size(), () -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                // One transaction, so all three reads see the same snapshot
+                conn.setAutoCommit(false);
+                try {
+                    Map<String, Long> versions = ChangeLog.currentAll(conn);
+                    long current = versions.getOrDefault(ChangeLog.EXPENSES, 0L);
+                    if (current <= version) {
+                        conn.commit();
+                        return new ExpenseChanges(current, List.of(), List.of(), true);
+                    }
+                    if (version < versions.getOrDefault(ChangeLog.PRUNED_EXPENSE_DELETIONS, 0L)) {
+                        // Some deletes since then have no tombstone any more
+                        conn.commit();
+                        return new ExpenseChanges(current, List.of(), List.of(), false);
+                    }
+                    List<Expense> changed = new ArrayList<>();
+                    try (PreparedStatement pstmt = conn.prepareStatement(SELECT_CHANGED_EXPENSES_SQL)) {
+                        pstmt.setLong(1, version);
+                        pstmt.setLong(2, current);
+                        pstmt.setInt(3, limit + 1);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                changed.add(mapExpense(rs));
+                            }
+                        }
+                    }
+                    List<Integer> deletedIds = new ArrayList<>();
+                    if (changed.size() <= limit) {
+                        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_DELETED_EXPENSES_SQL)) {
+                            pstmt.setLong(1, version);
+                            pstmt.setLong(2, current);
+                            pstmt.setInt(3, limit + 1 - changed.size());
+                            try (ResultSet rs = pstmt.executeQuery()) {
+                                while (rs.next()) {
+                                    int id = rs.getInt(1);
+                                    // A reused id deleted and then inserted again is not gone
+                                    if (changed.stream().noneMatch(expense -> expense.getId() == id)) {
+                                        deletedIds.add(id);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    conn.commit();
+                    if (changed.size() + deletedIds.size() > limit) {
+                        return new ExpenseChanges(current, List.of(), List.of(), false);
+                    }
+                    return new ExpenseChanges(current, changed, deletedIds, true);
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the rollup-relevant columns and version of an expense and locks
+     * its row until the caller's transaction ends.
+     */
+    private Expense lockExpenseForUpdate(Connection conn, int id) throws SQLException {
+        String sql = "SELECT id, category_id, amount, date, version FROM expenses WHERE id = ? FOR UPDATE";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
-            
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Expense expense = new Expense();
+                expense.setId(rs.getInt("id"));
+                expense.setCategoryId(rs.getInt("category_id"));
+                expense.setAmountCents(Money.toCents(rs.getBigDecimal("amount")));
+                expense.setDate(rs.getDate("date").toLocalDate());
+                expense.setVersion(rs.getLong("version"));
+                return expense;
+            }
         }
     }
     
     // Reporting methods
-    public Map<String, Double> getExpensesByCategory(LocalDate startDate, LocalDate endDate) throws SQLException {
-        Map<String, Double> expensesByCategory = new HashMap<>();
-        String sql = """
-            SELECT c.name as category, SUM(e.amount) as total
-            FROM expenses e
-            JOIN categories c ON e.category_id = c.id
-            WHERE e.date BETWEEN ? AND ?
-            GROUP BY c.name
-            ORDER BY total DESC""";
+    /**
+     * Total spent per category name over {@code [startDate, endDate]}, in cents.
+     */
+    public Map<String, Long> getExpensesByCategory(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return timed("getExpensesByCategory", Map::size, () -> {
+            Map<String, Long> expensesByCategory = new HashMap<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            // Whole months come from the monthly rollup, partial edge months from raw rows
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(MonthlyRollup.EXPENSES_BY_CATEGORY_SQL)) {
             
-            pstmt.setDate(1, Date.valueOf(startDate));
-            pstmt.setDate(2, Date.valueOf(endDate));
+                MonthlyRollup.bindExpensesByCategory(pstmt, startDate, endDate);
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    expensesByCategory.put(
-                        rs.getString("category"),
-                        rs.getDouble("total")
-                    );
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        expensesByCategory.put(
+                            rs.getString("category"),
+                            Money.toCents(rs.getBigDecimal("total"))
+                        );
+                    }
                 }
             }
-        }
-        return expensesByCategory;
+            return expensesByCategory;
+        });
     }
     
     public List<Expense> getExpensesByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
-        List<Expense> expenses = new ArrayList<>();
-        String sql = """
-            SELECT e.*, c.name as category_name 
-            FROM expenses e 
-            JOIN categories c ON e.category_id = c.id 
-            WHERE e.date BETWEEN ? AND ?
-            ORDER BY e.date DESC, e.id DESC""";
+        return timed("getExpensesByDateRange", List::size, () -> {
+            List<Expense> expenses = new ArrayList<>();
+            String sql = """
+                SELECT e.*, c.name as category_name 
+                FROM expenses e 
+                JOIN categories c ON e.category_id = c.id 
+                WHERE e.date BETWEEN ? AND ?
+                ORDER BY e.date DESC, e.id DESC""";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setDate(1, Date.valueOf(startDate));
-            pstmt.setDate(2, Date.valueOf(endDate));
+                pstmt.setDate(1, Date.valueOf(startDate));
+                pstmt.setDate(2, Date.valueOf(endDate));
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Expense expense = new Expense();
-                    expense.setId(rs.getInt("id"));
-                    expense.setName(rs.getString("name"));
-                    expense.setCategoryId(rs.getInt("category_id"));
-                    expense.setCategoryName(rs.getString("category_name"));
-                    expense.setAmount(rs.getBigDecimal("amount"));
-                    expense.setDescription(rs.getString("description"));
-                    expense.setDate(rs.getDate("date").toLocalDate());
-                    expenses.add(expense);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        expenses.add(mapExpense(rs));
+                    }
                 }
             }
+            return expenses;
+        });
+    }
+
+    // Batch insert support
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface IdSetter<T> {
+        void setId(T row, int id);
+    }
+
+    @FunctionalInterface
+    private interface ChunkStep<T> {
+        void apply(Connection conn, List<T> chunk) throws SQLException;
+    }
+
+    /**
+     * Inserts {@code rows} one transaction per chunk: {@code starter} runs
+     * first in each transaction, then the chunk is bound and sent as one JDBC
+     * batch, and {@code committer} finishes and commits the transaction.
+     */
+    private <T> int insertInBatches(String sql, Collection<T> rows, ChunkStep<T> starter, RowBinder<T> binder,
+                                    IdSetter<T> idSetter, ChunkStep<T> committer) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int inserted = 0;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            conn.setAutoCommit(false);
+            List<T> chunk = new ArrayList<>(Math.min(batchSize, rows.size()));
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                
+                if (chunk.size() == batchSize || !it.hasNext()) {
+                    try {
+                        starter.apply(conn, chunk);
+                        for (T row : chunk) {
+                            binder.bind(pstmt, row);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            for (T inChunk : chunk) {
+                                if (!generatedKeys.next()) {
+                                    throw new SQLException("Batch insert failed, not all IDs were obtained.");
+                                }
+                                idSetter.setId(inChunk, generatedKeys.getInt(1));
+                            }
+                        }
+                        committer.apply(conn, chunk);
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    }
+                    inserted += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return inserted;
+    }
+
+    // Row mapping
+    private static Expense mapExpense(ResultSet rs) throws SQLException {
+        Expense expense = new Expense();
+        expense.setId(rs.getInt("id"));
+        expense.setName(rs.getString("name"));
+        expense.setCategoryId(rs.getInt("category_id"));
+        expense.setCategoryName(rs.getString("category_name"));
+        expense.setAmountCents(Money.toCents(rs.getBigDecimal("amount")));
+        expense.setDescription(rs.getString("description"));
+        expense.setDate(rs.getDate("date").toLocalDate());
+        expense.setVersion(rs.getLong("version"));
+        return expense;
+    }
+
+    private static Transaction mapTransaction(ResultSet rs) throws SQLException {
+        return new Transaction(
+            rs.getInt("id"),
+            rs.getDate("date").toLocalDate(),
+            Transaction.TransactionType.valueOf(rs.getString("type")),
+            rs.getString("category"),
+            Money.toCents(rs.getBigDecimal("amount")),
+            rs.getString("description")
+        );
+    }
+
+    // Streaming support
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private <T> Stream<T> streamQuery(String sql, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(STREAMING_FETCH_SIZE);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, pstmt, conn);
+            throw e;
+        }
+        
+        ResultSet cursor = rs;
+        PreparedStatement cursorStmt = pstmt;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Failed to read streamed row", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false)
+            .onClose(() -> closeQuietly(cursor, cursorStmt, conn));
+    }
+
+    // Metrics
+    @FunctionalInterface
+    private interface TimedCall<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * Runs {@code call}, recording its latency and {@code rowCount} of its
+     * result under {@code operation}, or a failure if it throws.
+     */
+    private static <T> T timed(String operation, ToLongFunction<? super T> rowCount, TimedCall<T> call)
+            throws SQLException {
+        OperationStats stats = METRICS.operation(operation);
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (SQLException | RuntimeException e) {
+            stats.failure(System.nanoTime() - start);
+            throw e;
+        }
+        stats.success(System.nanoTime() - start, rowCount.applyAsLong(result));
+        return result;
+    }
+
+    private static <T> long countingForEach(Stream<T> rows, Consumer<? super T> visitor) {
+        long[] count = new long[1];
+        rows.forEach(row -> {
+            visitor.accept(row);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    // Change notification
+    private void fireExpensesAdded(List<Expense> expenses) {
+        for (ExpenseChangeListener listener : expenseListeners) {
+            try {
+                listener.expensesAdded(expenses);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void fireExpenseUpdated(Expense expense) {
+        for (ExpenseChangeListener listener : expenseListeners) {
+            try {
+                listener.expenseUpdated(expense);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void fireExpenseDeleted(int id) {
+        for (ExpenseChangeListener listener : expenseListeners) {
+            try {
+                listener.expenseDeleted(id);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
         }
-        return expenses;
     }
 }
@@ -0,0 +1,205 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Money;
+import com.expense_tracker.model.Transaction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-aggregated monthly sums and counts for expenses and transactions.
+ *
+ * Rows are keyed by month ({@code yyyymm}) plus category (and type, for
+ * transactions) and are adjusted in the same database transaction as every
+ * insert, update and delete of the underlying rows. Reports read whole months
+ * from here and only touch raw rows for partial months at the edges of a range.
+ */
+class MonthlyRollup {
+    static final String CREATE_EXPENSE_ROLLUP_SQL = """
+        CREATE TABLE IF NOT EXISTS expense_monthly_rollup (
+            period INT NOT NULL,
+            category_id INT NOT NULL,
+            total DECIMAL(15, 2) NOT NULL,
+            row_count INT NOT NULL,
+            PRIMARY KEY (period, category_id)
+        )""";
+
+    static final String CREATE_TRANSACTION_ROLLUP_SQL = """
+        CREATE TABLE IF NOT EXISTS transaction_monthly_rollup (
+            period INT NOT NULL,
+            type ENUM('INCOME', 'EXPENSE') NOT NULL,
+            category VARCHAR(50) NOT NULL,
+            total DECIMAL(15, 2) NOT NULL,
+            row_count INT NOT NULL,
+            PRIMARY KEY (period, type, category)
+        )""";
+
+    static final String BACKFILL_EXPENSE_ROLLUP_SQL = """
+        INSERT INTO expense_monthly_rollup (period, category_id, total, row_count)
+        SELECT YEAR(date) * 100 + MONTH(date), category_id, SUM(amount), COUNT(*)
+        FROM expenses
+        GROUP BY YEAR(date) * 100 + MONTH(date), category_id""";
+
+    static final String BACKFILL_TRANSACTION_ROLLUP_SQL = """
+        INSERT INTO transaction_monthly_rollup (period, type, category, total, row_count)
+        SELECT YEAR(date) * 100 + MONTH(date), type, category, SUM(amount), COUNT(*)
+        FROM transactions
+        GROUP BY YEAR(date) * 100 + MONTH(date), type, category""";
+
+    private static final String UPSERT_EXPENSE_SQL = """
+        INSERT INTO expense_monthly_rollup (period, category_id, total, row_count)
+        VALUES (?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE total = total + VALUES(total), row_count = row_count + VALUES(row_count)""";
+
+    private static final String UPSERT_TRANSACTION_SQL = """
+        INSERT INTO transaction_monthly_rollup (period, type, category, total, row_count)
+        VALUES (?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE total = total + VALUES(total), row_count = row_count + VALUES(row_count)""";
+
+    /**
+     * Full months are read from the rollup; the two raw-row ranges cover the
+     * partial months at either end. Unused ranges are bound empty (start after end)
+     * so every call shares one statement shape.
+     */
+    static final String EXPENSES_BY_CATEGORY_SQL = """
+        SELECT c.name AS category, SUM(t.total) AS total
+        FROM (
+            SELECT category_id, total, row_count FROM expense_monthly_rollup WHERE period BETWEEN ? AND ?
+            UNION ALL
+            SELECT category_id, amount, 1 FROM expenses WHERE date BETWEEN ? AND ?
+            UNION ALL
+            SELECT category_id, amount, 1 FROM expenses WHERE date BETWEEN ? AND ?
+        ) t
+        JOIN categories c ON t.category_id = c.id
+        GROUP BY c.name
+        HAVING SUM(t.row_count) > 0
+        ORDER BY total DESC""";
+
+    static final String CATEGORY_WISE_SUMMARY_SQL = """
+        SELECT type, category, SUM(total) AS total
+        FROM transaction_monthly_rollup
+        GROUP BY type, category
+        HAVING SUM(row_count) > 0
+        ORDER BY type, total DESC""";
+
+    /**
+     * Rebuilds both rollups from the raw tables.
+     */
+    static void backfill(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM expense_monthly_rollup");
+            stmt.executeUpdate("DELETE FROM transaction_monthly_rollup");
+            stmt.executeUpdate(BACKFILL_EXPENSE_ROLLUP_SQL);
+            stmt.executeUpdate(BACKFILL_TRANSACTION_ROLLUP_SQL);
+        }
+    }
+
+    static int period(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) expenses from the
+     * rollup. Must run inside the caller's database transaction.
+     */
+    static void applyExpenses(Connection conn, Collection<Expense> expenses, int sign) throws SQLException {
+        Map<ExpenseKey, Delta> deltas = new HashMap<>();
+        for (Expense expense : expenses) {
+            deltas.computeIfAbsent(new ExpenseKey(period(expense.getDate()), expense.getCategoryId()), k -> new Delta())
+                .add(expense.getAmountCents(), sign);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_EXPENSE_SQL)) {
+            for (Map.Entry<ExpenseKey, Delta> entry : deltas.entrySet()) {
+                pstmt.setInt(1, entry.getKey().period());
+                pstmt.setInt(2, entry.getKey().categoryId());
+                pstmt.setBigDecimal(3, Money.toDecimal(entry.getValue().cents));
+                pstmt.setInt(4, entry.getValue().rows);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Adds transactions to the rollup. Must run inside the caller's database transaction.
+     */
+    static void applyTransactions(Connection conn, Collection<Transaction> transactions) throws SQLException {
+        Map<TransactionKey, Delta> deltas = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            TransactionKey key = new TransactionKey(period(transaction.getDate()),
+                transaction.getType(), transaction.getCategory());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(transaction.getAmountCents(), 1);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_TRANSACTION_SQL)) {
+            for (Map.Entry<TransactionKey, Delta> entry : deltas.entrySet()) {
+                pstmt.setInt(1, entry.getKey().period());
+                pstmt.setString(2, entry.getKey().type().name());
+                pstmt.setString(3, entry.getKey().category());
+                pstmt.setBigDecimal(4, Money.toDecimal(entry.getValue().cents));
+                pstmt.setInt(5, entry.getValue().rows);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Binds {@link #EXPENSES_BY_CATEGORY_SQL} for the inclusive range
+     * {@code [startDate, endDate]}.
+     */
+    static void bindExpensesByCategory(PreparedStatement pstmt, LocalDate startDate, LocalDate endDate)
+            throws SQLException {
+        // First and last months lying completely inside the range
+        YearMonth firstFull = YearMonth.from(startDate);
+        if (startDate.getDayOfMonth() != 1) {
+            firstFull = firstFull.plusMonths(1);
+        }
+        YearMonth lastFull = YearMonth.from(endDate);
+        if (!endDate.equals(lastFull.atEndOfMonth())) {
+            lastFull = lastFull.minusMonths(1);
+        }
+
+        LocalDate headEnd;
+        LocalDate tailStart;
+        if (firstFull.isAfter(lastFull)) {
+            // No complete month: scan the whole range once
+            pstmt.setInt(1, 1);
+            pstmt.setInt(2, 0);
+            headEnd = endDate;
+            tailStart = endDate.plusDays(1);
+        } else {
+            pstmt.setInt(1, firstFull.getYear() * 100 + firstFull.getMonthValue());
+            pstmt.setInt(2, lastFull.getYear() * 100 + lastFull.getMonthValue());
+            headEnd = firstFull.atDay(1).minusDays(1);
+            tailStart = lastFull.atEndOfMonth().plusDays(1);
+        }
+        pstmt.setDate(3, java.sql.Date.valueOf(startDate));
+        pstmt.setDate(4, java.sql.Date.valueOf(headEnd));
+        pstmt.setDate(5, java.sql.Date.valueOf(tailStart));
+        pstmt.setDate(6, java.sql.Date.valueOf(endDate));
+    }
+
+    private record ExpenseKey(int period, int categoryId) {
+    }
+
+    private record TransactionKey(int period, Transaction.TransactionType type, String category) {
+    }
+
+    private static final class Delta {
+        private long cents;
+        private int rows;
+
+        private void add(long amountCents, int sign) {
+            cents += sign * amountCents;
+            rows += sign;
+        }
+    }
+}
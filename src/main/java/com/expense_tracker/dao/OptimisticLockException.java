@@ -0,0 +1,15 @@
+package com.expense_tracker.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when an update is based on a row version that another client has
+ * since overwritten. Nothing was written; reload the row and try again.
+ */
+public class OptimisticLockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    public OptimisticLockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,266 @@
+package com.expense_tracker.dao;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies versioned schema changes exactly once.
+ *
+ * Every applied migration is recorded in {@code schema_version}. On a database
+ * that is already current, startup costs a single {@code MAX(version)} query.
+ * Migrations are never edited once released; schema changes are appended to
+ * {@link #MIGRATIONS} with the next version number.
+ */
+class SchemaMigrator {
+
+    @FunctionalInterface
+    interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    record Migration(int version, String description, MigrationStep step) {
+    }
+
+    private static final String CREATE_SCHEMA_VERSION_SQL = """
+        CREATE TABLE IF NOT EXISTS schema_version (
+            version INT PRIMARY KEY,
+            description VARCHAR(200) NOT NULL,
+            applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )""";
+
+    private static final String CREATE_CATEGORIES_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS categories (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            name VARCHAR(50) NOT NULL UNIQUE,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+        )""";
+
+    private static final String CREATE_EXPENSES_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS expenses (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            name VARCHAR(100) NOT NULL,
+            category_id INT NOT NULL,
+            amount DECIMAL(10, 2) NOT NULL,
+            description TEXT,
+            date DATE NOT NULL,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+            FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE RESTRICT
+        )""";
+
+    private static final String CREATE_TRANSACTIONS_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS transactions (
+            id INT AUTO_INCREMENT PRIMARY KEY,
+            date DATE NOT NULL,
+            type ENUM('INCOME', 'EXPENSE') NOT NULL,
+            category VARCHAR(50) NOT NULL,
+            amount DECIMAL(10, 2) NOT NULL,
+            description TEXT,
+            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )""";
+
+    static final List<String> DEFAULT_CATEGORIES = List.of(
+        "Food & Dining", "Shopping", "Transportation", "Bills & Utilities",
+        "Housing", "Entertainment", "Healthcare", "Education",
+        "Gifts & Donations", "Travel", "Personal Care", "Pets", "Other"
+    );
+
+    // Serializes migrations between clients starting at the same time (MySQL named lock)
+    private static final String LOCK_NAME = "expense_tracker_schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Create categories, expenses and transactions", conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_CATEGORIES_TABLE_SQL);
+                stmt.execute(CREATE_EXPENSES_TABLE_SQL);
+                stmt.execute(CREATE_TRANSACTIONS_TABLE_SQL);
+            }
+        }),
+        new Migration(2, "Create running transaction totals", conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(TransactionTotals.CREATE_TABLE_SQL);
+            }
+            TransactionTotals.seed(conn);
+        }),
+        new Migration(3, "Create and backfill monthly rollups", conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(MonthlyRollup.CREATE_EXPENSE_ROLLUP_SQL);
+                stmt.execute(MonthlyRollup.CREATE_TRANSACTION_ROLLUP_SQL);
+            }
+            MonthlyRollup.backfill(conn);
+        }),
+        new Migration(4, "Add date, type and category indexes", conn -> {
+            createIndexIfMissing(conn, "expenses", "idx_expenses_date_id", "date, id");
+            createIndexIfMissing(conn, "expenses", "idx_expenses_category_date", "category_id, date");
+            createIndexIfMissing(conn, "transactions", "idx_transactions_date_id", "date, id");
+            createIndexIfMissing(conn, "transactions", "idx_transactions_type_date", "type, date");
+        }),
+        new Migration(5, "Seed default categories", SchemaMigrator::seedDefaultCategories),
+        new Migration(6, "Add row versions and expense change tracking", ChangeLog::install)
+    );
+
+    private final List<Migration> migrations;
+
+    SchemaMigrator() {
+        this(MIGRATIONS);
+    }
+
+    SchemaMigrator(List<Migration> migrations) {
+        this.migrations = migrations;
+    }
+
+    /**
+     * Brings the schema up to the latest version.
+     *
+     * @return the number of migrations applied
+     */
+    int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SCHEMA_VERSION_SQL);
+        }
+        int latest = migrations.get(migrations.size() - 1).version();
+        if (currentVersion(conn) >= latest) {
+            return 0;
+        }
+
+        boolean locked = acquireLock(conn);
+        try {
+            // Another client may have migrated while we waited for the lock
+            int current = currentVersion(conn);
+            int applied = 0;
+            for (Migration migration : migrations) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                System.out.println("Applying schema migration " + migration.version()
+                    + ": " + migration.description());
+                apply(conn, migration);
+                applied++;
+            }
+            return applied;
+        } finally {
+            if (locked) {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    static int currentVersion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT COALESCE(MAX(version), 0) FROM schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        // DDL commits implicitly in MySQL; the transaction only keeps data steps
+        // and the version record together
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            migration.step().apply(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Schema migration " + migration.version() + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Inserts the default categories in one multi-row statement. Names that
+     * already exist are left alone.
+     */
+    static void seedDefaultCategories(Connection conn) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(DEFAULT_CATEGORIES.size(), "(?)"));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT IGNORE INTO categories (name) VALUES " + placeholders)) {
+            for (int i = 0; i < DEFAULT_CATEGORIES.size(); i++) {
+                pstmt.setString(i + 1, DEFAULT_CATEGORIES.get(i));
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Creates an index unless one with that name exists, so a migration that
+     * was interrupted half way can simply be run again.
+     */
+    static void createIndexIfMissing(Connection conn, String table, String indexName, String columns)
+            throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                String existing = rs.getString("INDEX_NAME");
+                if (existing != null && existing.toLowerCase(Locale.ROOT).equals(indexName)) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX " + indexName + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    /**
+     * Adds a column unless the table already has it, for the same reason as
+     * {@link #createIndexIfMissing}.
+     */
+    static void addColumnIfMissing(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), null, table, null)) {
+            while (rs.next()) {
+                if (rs.getString("COLUMN_NAME").equalsIgnoreCase(column)) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        int result;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                result = rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            // Databases without GET_LOCK (e.g. embedded test databases) run unlocked
+            return false;
+        }
+        if (result != 1) {
+            throw new SQLException("Timed out waiting for the schema migration lock");
+        }
+        return true;
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.expense_tracker.dao;
+
+import com.expense_tracker.model.Money;
+import com.expense_tracker.model.Transaction.TransactionType;
+import com.expense_tracker.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running income/expense totals for the transactions table.
+ *
+ * The {@code transaction_totals} table holds one row per transaction type and
+ * is updated in the same database transaction as every insert, so it is
+ * current for every client sharing the database. Balance queries read those
+ * two rows, a primary-key lookup, instead of summing {@code transactions}.
+ * Reconciliation compares the table with a full {@code SUM} over
+ * {@code transactions} and repairs any drift. It runs periodically only on
+ * clients that opt in, and of those only one at a time.
+ */
+class TransactionTotals {
+    static final String CREATE_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS transaction_totals (
+            type ENUM('INCOME', 'EXPENSE') PRIMARY KEY,
+            total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+            row_count BIGINT NOT NULL DEFAULT 0
+        )""";
+
+    private static final String SEED_SQL = "INSERT IGNORE INTO transaction_totals (type) VALUES ('INCOME'), ('EXPENSE')";
+    private static final String RECOMPUTE_SQL = """
+        UPDATE transaction_totals t
+        SET total = (SELECT COALESCE(SUM(x.amount), 0) FROM transactions x WHERE x.type = t.type),
+            row_count = (SELECT COUNT(*) FROM transactions x WHERE x.type = t.type)""";
+    private static final String INCREMENT_SQL =
+        "UPDATE transaction_totals SET total = total + ?, row_count = row_count + ? WHERE type = ?";
+    private static final String SELECT_TOTALS_SQL = "SELECT type, total, row_count FROM transaction_totals";
+    private static final String LOCK_TOTALS_SQL = SELECT_TOTALS_SQL + " FOR UPDATE";
+    private static final String SUM_TRANSACTIONS_SQL =
+        "SELECT type, COALESCE(SUM(amount), 0) AS total, COUNT(*) AS row_count FROM transactions GROUP BY type";
+    private static final String SET_TOTALS_SQL =
+        "UPDATE transaction_totals SET total = ?, row_count = ? WHERE type = ?";
+
+    // Held by the client running a scheduled reconciliation (MySQL named lock)
+    private static final String RECONCILE_LOCK_NAME = "expense_tracker_totals";
+
+    private ScheduledExecutorService reconciler;
+
+    /**
+     * Creates the totals rows and computes them from existing transactions.
+     * Used once, by the schema migration that introduces the table.
+     */
+    static void seed(Connection conn) throws SQLException {
+        try (PreparedStatement seed = conn.prepareStatement(SEED_SQL);
+             PreparedStatement recompute = conn.prepareStatement(RECOMPUTE_SQL)) {
+            seed.executeUpdate();
+            recompute.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds {@code amountCents} to the stored total for {@code type} on the
+     * caller's connection; must run inside the caller's database transaction.
+     */
+    void increment(Connection conn, TransactionType type, long amountCents, int rows) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INCREMENT_SQL)) {
+            pstmt.setBigDecimal(1, Money.toDecimal(amountCents));
+            pstmt.setInt(2, rows);
+            pstmt.setString(3, type.name());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * The stored total of every transaction type, in cents. Types without
+     * transactions map to 0.
+     */
+    Map<TransactionType, Long> read(Connection conn) throws SQLException {
+        Map<TransactionType, Totals> stored = readTotals(conn, SELECT_TOTALS_SQL);
+        Map<TransactionType, Long> cents = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            cents.put(type, stored.getOrDefault(type, Totals.ZERO).cents);
+        }
+        return cents;
+    }
+
+    /**
+     * Starts a daemon thread that reconciles the totals every {@code periodMinutes}.
+     * A run is skipped while another client holds the reconciliation lock.
+     */
+    synchronized void startReconciliation(long periodMinutes) {
+        if (reconciler != null || periodMinutes <= 0) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "transaction-totals-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                if (tryLock(conn)) {
+                    try {
+                        reconcile(conn);
+                    } finally {
+                        releaseLock(conn);
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, periodMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Verifies the stored totals against a full {@code SUM} and fixes them if
+     * they drifted.
+     *
+     * @return {@code true} if the stored totals were already correct
+     */
+    boolean reconcile(Connection conn) throws SQLException {
+        boolean consistent = true;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // Locking the totals rows holds back writers, whose own UPDATE waits on them
+            Map<TransactionType, Totals> stored = readTotals(conn, LOCK_TOTALS_SQL);
+            Map<TransactionType, Totals> actual = readTotals(conn, SUM_TRANSACTIONS_SQL);
+            for (TransactionType type : TransactionType.values()) {
+                Totals expected = actual.getOrDefault(type, Totals.ZERO);
+                if (!expected.equals(stored.getOrDefault(type, Totals.ZERO))) {
+                    consistent = false;
+                    System.err.println("Transaction totals for " + type + " drifted: stored "
+                        + stored.get(type) + ", actual " + expected + "; repairing");
+                    try (PreparedStatement pstmt = conn.prepareStatement(SET_TOTALS_SQL)) {
+                        pstmt.setBigDecimal(1, Money.toDecimal(expected.cents));
+                        pstmt.setLong(2, expected.rows);
+                        pstmt.setString(3, type.name());
+                        pstmt.executeUpdate();
+                    }
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return consistent;
+    }
+
+    private static boolean tryLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            pstmt.setString(1, RECONCILE_LOCK_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        } catch (SQLException e) {
+            // Databases without GET_LOCK (e.g. embedded test databases) run unlocked
+            return true;
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, RECONCILE_LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            // Nothing to release on databases without GET_LOCK
+        }
+    }
+
+    private static Map<TransactionType, Totals> readTotals(Connection conn, String sql) throws SQLException {
+        Map<TransactionType, Totals> totals = new EnumMap<>(TransactionType.class);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                totals.put(TransactionType.valueOf(rs.getString("type")),
+                    new Totals(Money.toCents(rs.getBigDecimal("total")), rs.getLong("row_count")));
+            }
+        }
+        return totals;
+    }
+
+    private record Totals(long cents, long rows) {
+        private static final Totals ZERO = new Totals(0, 0);
+    }
+}
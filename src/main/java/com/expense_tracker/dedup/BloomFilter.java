@@ -0,0 +1,77 @@
+package com.expense_tracker.dedup;
+
+/**
+ * Bloom filter over fingerprints, sized for an expected number of entries
+ * and false-positive rate. The probe positions are derived from the
+ * fingerprint by double hashing, so nothing is hashed twice. The reported
+ * false-positive rate is computed from the bits actually set.
+ */
+final class BloomFilter implements FingerprintSet {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashes;
+    private final long capacity;
+    private long bitsSet;
+    private long size;
+
+    BloomFilter(long expected, double falsePositiveRate) {
+        long n = Math.max(1, expected);
+        capacity = n;
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, (m + 63) & ~63L);
+        bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, m / 64)];
+        bitCount = bits.length * 64L;
+        hashes = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    @Override
+    public void add(long fingerprint) {
+        long h2 = Fingerprints.mix(fingerprint) | 1;
+        long before = bitsSet;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(fingerprint + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                bitsSet++;
+            }
+        }
+        if (bitsSet != before) {
+            size++;
+        }
+    }
+
+    @Override
+    public boolean mightContain(long fingerprint) {
+        long h2 = Fingerprints.mix(fingerprint) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(fingerprint + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Entries added that were not already (or did not already seem to be) present. */
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /** The number of entries the filter was sized for. */
+    long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return bits.length * 8L;
+    }
+
+    @Override
+    public double falsePositiveRate() {
+        return Math.pow((double) bitsSet / bitCount, hashes);
+    }
+}
@@ -0,0 +1,17 @@
+package com.expense_tracker.dedup;
+
+/**
+ * Size and effectiveness of a {@link DuplicateDetector}.
+ *
+ * @param falsePositiveRate chance that a row not yet stored is reported as a duplicate
+ */
+public record DedupStats(DuplicateDetector.Mode mode, long fingerprints, long memoryBytes,
+                         double falsePositiveRate, long checks, long duplicates) {
+
+    @Override
+    public String toString() {
+        return String.format("%s: %,d fingerprints in %,.1f KiB (%.1f bytes each), false positive rate %.2g, "
+                + "%,d checks, %,d duplicates", mode, fingerprints, memoryBytes / 1024.0,
+            fingerprints == 0 ? 0.0 : (double) memoryBytes / fingerprints, falsePositiveRate, checks, duplicates);
+    }
+}
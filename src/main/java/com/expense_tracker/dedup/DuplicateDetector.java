@@ -0,0 +1,271 @@
+package com.expense_tracker.dedup;
+
+import com.expense_tracker.dao.ExpenseChangeListener;
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Transaction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Detects rows that are already stored, such as the overlap when statements
+ * for overlapping periods are imported, without a database query per row.
+ *
+ * Expenses are identified by (date, amount, normalized name), transactions by
+ * (date, type, amount, normalized description). The fingerprints of all stored
+ * rows are loaded by one streaming scan and kept in memory, either exactly
+ * with a count per fingerprint ({@link Mode#EXACT}, 24 to 48 bytes per row) or in a Bloom filter
+ * ({@link Mode#BLOOM}, about 2 bytes per row at a 0.1% false-positive rate,
+ * growing as rows are added). A false positive makes a new row look like a duplicate, so the
+ * Bloom filter trades a small chance of dropping a genuine row for memory.
+ * The mode and rate come from {@code expense.dedup.mode} ({@code exact} or
+ * {@code bloom}) and {@code expense.dedup.falsePositiveRate}.
+ *
+ * Expenses the DAO inserts are added as they commit. An updated expense's
+ * new fingerprint is added only if it is not known yet, since the update
+ * does not say whether it changed; its count is not raised. Fingerprints of
+ * updated or deleted rows are not removed, so such rows keep matching, and
+ * counts stay approximate, until the next {@link #rebuild()}.
+ *
+ * Identical rows are legitimate (two coffees on the same day), so a statement
+ * is checked with {@link #isNewOccurrence}: the n-th identical row in a file
+ * is a duplicate only if at least n identical rows are already stored. Only
+ * {@link Mode#EXACT} keeps those counts; a Bloom filter only knows whether a
+ * row is present, so there only the first of several identical rows in a
+ * file can match.
+ */
+public final class DuplicateDetector implements ExpenseChangeListener {
+    private static final Logger LOG = LogManager.getLogger(DuplicateDetector.class);
+    private static final long MIN_BLOOM_CAPACITY = 100_000;
+
+    public enum Mode { EXACT, BLOOM }
+
+    private final ExpensetrackerAppDAO dao;
+    private final Mode mode;
+    private final double targetFalsePositiveRate;
+    private FingerprintSet fingerprints;
+    // Also receives new fingerprints while a rebuild is scanning
+    private FingerprintSet rebuilding;
+    private long checks;
+    private long duplicates;
+
+    private DuplicateDetector(ExpensetrackerAppDAO dao, Mode mode, double targetFalsePositiveRate) {
+        this.dao = dao;
+        this.mode = mode;
+        this.targetFalsePositiveRate = targetFalsePositiveRate;
+    }
+
+    /**
+     * Loads the fingerprints of every stored row, with the mode and rate from
+     * the system properties, and keeps them current as {@code dao} adds expenses.
+     */
+    public static DuplicateDetector load(ExpensetrackerAppDAO dao) throws SQLException {
+        Mode mode = Mode.valueOf(System.getProperty("expense.dedup.mode", "exact").toUpperCase(Locale.ROOT));
+        double rate = Double.parseDouble(System.getProperty("expense.dedup.falsePositiveRate", "0.001"));
+        return load(dao, mode, rate);
+    }
+
+    /**
+     * @param falsePositiveRate target rate for {@link Mode#BLOOM}; ignored for {@link Mode#EXACT}
+     */
+    public static DuplicateDetector load(ExpensetrackerAppDAO dao, Mode mode, double falsePositiveRate)
+            throws SQLException {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        DuplicateDetector detector = new DuplicateDetector(dao, mode, falsePositiveRate);
+        dao.addExpenseChangeListener(detector);
+        try {
+            detector.rebuild();
+        } catch (SQLException | RuntimeException e) {
+            dao.removeExpenseChangeListener(detector);
+            throw e;
+        }
+        return detector;
+    }
+
+    /**
+     * Reloads every fingerprint from the database, dropping those of updated
+     * and deleted rows. The detector keeps answering from the old
+     * fingerprints while the new ones load.
+     */
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        long rows = (long) dao.countExpenses() + dao.countTransactions();
+        FingerprintSet loaded = mode == Mode.BLOOM
+            ? new ScalableBloomFilter(Math.max(rows, MIN_BLOOM_CAPACITY), targetFalsePositiveRate)
+            : new LongHashSet(rows);
+        synchronized (this) {
+            rebuilding = loaded;
+        }
+        try {
+            dao.scanExpenses((id, name, categoryId, amountCents, epochDay) -> {
+                long fingerprint = Fingerprints.of(Fingerprints.EXPENSE, epochDay, amountCents, name);
+                synchronized (this) {
+                    loaded.add(fingerprint);
+                }
+            });
+            dao.forEachTransaction(transaction -> {
+                long fingerprint = fingerprint(transaction);
+                synchronized (this) {
+                    loaded.add(fingerprint);
+                }
+            });
+        } finally {
+            synchronized (this) {
+                if (rebuilding == loaded) {
+                    rebuilding = null;
+                }
+            }
+        }
+        synchronized (this) {
+            fingerprints = loaded;
+        }
+        LOG.info("Loaded duplicate detection in {} ms; {}", (System.nanoTime() - start) / 1_000_000, getStats());
+    }
+
+    public synchronized boolean isDuplicate(Expense expense) {
+        return check(fingerprint(expense));
+    }
+
+    public synchronized boolean isDuplicate(Transaction transaction) {
+        return check(fingerprint(transaction));
+    }
+
+    /**
+     * Counts the rows of one statement file for {@link #isNewOccurrence}.
+     * Not thread-safe; use one per file.
+     */
+    public static final class FileOccurrences {
+        private final LongHashSet counts = new LongHashSet(1024);
+    }
+
+    public FileOccurrences newFileOccurrences() {
+        return new FileOccurrences();
+    }
+
+    /**
+     * Counts {@code expense} as one more row of {@code inFile} and checks it
+     * against the stored rows: it is new if the file holds more identical
+     * rows so far than are stored. Nothing is recorded until the DAO reports
+     * the insert, which keeps the comparison right whether or not earlier
+     * rows of the file have been committed yet.
+     *
+     * @return {@code true} if the expense is new
+     */
+    public synchronized boolean isNewOccurrence(Expense expense, FileOccurrences inFile) {
+        long fingerprint = fingerprint(expense);
+        int occurrence = inFile.counts.increment(fingerprint);
+        checks++;
+        if (fingerprints != null && occurrence <= fingerprints.count(fingerprint)) {
+            duplicates++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds {@code transaction} unless it is a duplicate.
+     *
+     * @return {@code true} if it was added
+     */
+    public boolean addTransactionIfNew(Transaction transaction) {
+        long fingerprint = fingerprint(transaction);
+        synchronized (this) {
+            if (check(fingerprint)) {
+                return false;
+            }
+        }
+        if (!dao.addTransaction(transaction)) {
+            return false;
+        }
+        synchronized (this) {
+            add(fingerprint);
+        }
+        return true;
+    }
+
+    /**
+     * Adds {@code expense} unless it is a duplicate; the DAO's change
+     * notification records it.
+     *
+     * @return {@code true} if it was added
+     */
+    public boolean addExpenseIfNew(Expense expense) throws SQLException {
+        if (isDuplicate(expense)) {
+            return false;
+        }
+        dao.addExpenses(List.of(expense));
+        return true;
+    }
+
+    public synchronized DedupStats getStats() {
+        FingerprintSet current = fingerprints;
+        return new DedupStats(mode, current == null ? 0 : current.size(), current == null ? 0 : current.memoryBytes(),
+            current == null ? 0 : current.falsePositiveRate(), checks, duplicates);
+    }
+
+    @Override
+    public synchronized void expensesAdded(List<Expense> expenses) {
+        for (Expense expense : expenses) {
+            add(fingerprint(expense));
+        }
+    }
+
+    @Override
+    public synchronized void expenseUpdated(Expense expense) {
+        long fingerprint = fingerprint(expense);
+        addIfAbsent(fingerprints, fingerprint);
+        addIfAbsent(rebuilding, fingerprint);
+    }
+
+    @Override
+    public void expenseDeleted(int id) {
+        // Fingerprints cannot be removed; the stale one is dropped by the next rebuild
+    }
+
+    private boolean check(long fingerprint) {
+        checks++;
+        if (fingerprints != null && fingerprints.mightContain(fingerprint)) {
+            duplicates++;
+            return true;
+        }
+        return false;
+    }
+
+    private void add(long fingerprint) {
+        if (fingerprints != null) {
+            fingerprints.add(fingerprint);
+        }
+        if (rebuilding != null) {
+            rebuilding.add(fingerprint);
+        }
+    }
+
+    private static void addIfAbsent(FingerprintSet set, long fingerprint) {
+        if (set != null && !set.mightContain(fingerprint)) {
+            set.add(fingerprint);
+        }
+    }
+
+    private static long fingerprint(Expense expense) {
+        return Fingerprints.of(Fingerprints.EXPENSE, epochDay(expense.getDate()), expense.getAmountCents(),
+            expense.getName());
+    }
+
+    private static long fingerprint(Transaction transaction) {
+        long amount = transaction.getType() == Transaction.TransactionType.INCOME
+            ? transaction.getAmountCents() : -transaction.getAmountCents();
+        return Fingerprints.of(Fingerprints.TRANSACTION, epochDay(transaction.getDate()), amount,
+            transaction.getDescription());
+    }
+
+    private static long epochDay(LocalDate date) {
+        return date == null ? Long.MIN_VALUE : date.toEpochDay();
+    }
+}
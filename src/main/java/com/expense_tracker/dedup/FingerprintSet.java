@@ -0,0 +1,27 @@
+package com.expense_tracker.dedup;
+
+/**
+ * A set of fingerprints that may answer "present" for fingerprints never
+ * added, at the rate reported by {@link #falsePositiveRate()}.
+ */
+interface FingerprintSet {
+
+    void add(long fingerprint);
+
+    boolean mightContain(long fingerprint);
+
+    /**
+     * How many times {@code fingerprint} was added, as far as the set can
+     * tell; sets that only track presence answer 0 or 1.
+     */
+    default int count(long fingerprint) {
+        return mightContain(fingerprint) ? 1 : 0;
+    }
+
+    long size();
+
+    long memoryBytes();
+
+    /** Chance that a fingerprint never added is reported as present. */
+    double falsePositiveRate();
+}
@@ -0,0 +1,42 @@
+package com.expense_tracker.dedup;
+
+/**
+ * 64-bit fingerprints of (date, amount, normalized text).
+ *
+ * Text is normalized by keeping only letters and digits, lower-cased, so
+ * "STARBUCKS #123" and "Starbucks 123" match. Expense and transaction
+ * fingerprints are salted differently and never collide by construction.
+ */
+final class Fingerprints {
+    static final long EXPENSE = 0x2545F4914F6CDD1DL;
+    static final long TRANSACTION = 0x9E3779B97F4A7C15L;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private Fingerprints() {
+    }
+
+    static long of(long salt, long epochDay, long amountCents, String text) {
+        long hash = FNV_OFFSET ^ salt;
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                }
+            }
+        }
+        hash = mix(hash ^ epochDay);
+        return mix(hash ^ amountCents);
+    }
+
+    /** The murmur3 finalizer; spreads every input bit over the whole result. */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        return value ^ value >>> 33;
+    }
+}
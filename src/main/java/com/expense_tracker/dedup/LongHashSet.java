@@ -0,0 +1,101 @@
+package com.expense_tracker.dedup;
+
+/**
+ * Exact open-addressing multiset of fingerprints with linear probing, kept at
+ * most half full, counting how often each fingerprint was added. Uses 24 to
+ * 48 bytes per entry; the only false positives are collisions of the 64-bit
+ * fingerprints themselves.
+ */
+final class LongHashSet implements FingerprintSet {
+    // 0 marks an empty slot, so the fingerprint 0 is stored as 1
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+    private int[] counts;
+    private int mask;
+    private long size;
+
+    LongHashSet(long expected) {
+        int capacity = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(16, expected * 2)) - 1) << 1;
+        slots = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    @Override
+    public void add(long fingerprint) {
+        increment(fingerprint);
+    }
+
+    /**
+     * Adds {@code fingerprint} once more.
+     *
+     * @return how many times it has now been added
+     */
+    int increment(long fingerprint) {
+        long key = fingerprint == EMPTY ? 1 : fingerprint;
+        int slot = (int) Fingerprints.mix(key) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == key) {
+                return ++counts[slot];
+            }
+            slot = slot + 1 & mask;
+        }
+        slots[slot] = key;
+        counts[slot] = 1;
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return 1;
+    }
+
+    @Override
+    public boolean mightContain(long fingerprint) {
+        return count(fingerprint) > 0;
+    }
+
+    @Override
+    public int count(long fingerprint) {
+        long key = fingerprint == EMPTY ? 1 : fingerprint;
+        for (int slot = (int) Fingerprints.mix(key) & mask; slots[slot] != EMPTY; slot = slot + 1 & mask) {
+            if (slots[slot] == key) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    private void grow() {
+        long[] oldSlots = slots;
+        int[] oldCounts = counts;
+        slots = new long[oldSlots.length * 2];
+        counts = new int[slots.length];
+        mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            long key = oldSlots[i];
+            if (key != EMPTY) {
+                int slot = (int) Fingerprints.mix(key) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = slot + 1 & mask;
+                }
+                slots[slot] = key;
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return slots.length * 12L;
+    }
+
+    @Override
+    public double falsePositiveRate() {
+        return size / 0x1p64;
+    }
+}
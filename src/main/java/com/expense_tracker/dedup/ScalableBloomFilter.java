@@ -0,0 +1,76 @@
+package com.expense_tracker.dedup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter that keeps its false-positive rate as it grows. Entries go
+ * into the newest of a chain of {@link BloomFilter}s; once it holds as many
+ * entries as it was sized for, a filter twice as large with half the rate
+ * is started. The rates form a halving series, so the chain as a whole
+ * stays below the target however many entries are added.
+ */
+final class ScalableBloomFilter implements FingerprintSet {
+    private final List<BloomFilter> layers = new ArrayList<>();
+    private double nextRate;
+    private BloomFilter newest;
+
+    ScalableBloomFilter(long expected, double falsePositiveRate) {
+        nextRate = falsePositiveRate / 2;
+        addLayer(expected);
+    }
+
+    private void addLayer(long capacity) {
+        newest = new BloomFilter(capacity, nextRate);
+        layers.add(newest);
+        nextRate /= 2;
+    }
+
+    @Override
+    public void add(long fingerprint) {
+        if (mightContain(fingerprint)) {
+            return;
+        }
+        if (newest.size() >= newest.capacity()) {
+            addLayer(newest.capacity() * 2);
+        }
+        newest.add(fingerprint);
+    }
+
+    @Override
+    public boolean mightContain(long fingerprint) {
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            if (layers.get(i).mightContain(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (BloomFilter layer : layers) {
+            size += layer.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = 0;
+        for (BloomFilter layer : layers) {
+            bytes += layer.memoryBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public double falsePositiveRate() {
+        double allNegative = 1;
+        for (BloomFilter layer : layers) {
+            allNegative *= 1 - layer.falsePositiveRate();
+        }
+        return 1 - allNegative;
+    }
+}
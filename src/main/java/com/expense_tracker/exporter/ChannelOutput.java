@@ -0,0 +1,205 @@
+package com.expense_tracker.exporter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes values straight into one reusable buffer that is written to a file
+ * channel, optionally through gzip, whenever it fills up. Numbers, dates and
+ * UTF-8 text are encoded without creating intermediate strings.
+ */
+final class ChannelOutput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    private final FileChannel channel;
+    private final GZIPOutputStream gzip;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private final byte[] digits = new byte[20];
+    private int position;
+    private long written;
+
+    ChannelOutput(FileChannel channel, boolean gzip) throws IOException {
+        this.channel = channel;
+        this.gzip = gzip ? new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16) : null;
+    }
+
+    /** Bytes written so far, before compression. */
+    long written() {
+        return written + position;
+    }
+
+    void writeByte(int b) throws IOException {
+        if (position == bytes.length) {
+            drain();
+        }
+        bytes[position++] = (byte) b;
+    }
+
+    void writeBytes(byte[] source, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == bytes.length) {
+                drain();
+            }
+            int chunk = Math.min(length, bytes.length - position);
+            System.arraycopy(source, offset, bytes, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /** Writes {@code value} in decimal. */
+    void writeDecimal(long value) throws IOException {
+        if (value < 0) {
+            writeByte('-');
+            if (value == Long.MIN_VALUE) {
+                writeAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            writeByte(digits[--count]);
+        }
+    }
+
+    /** Writes cents as a decimal amount with two decimals, e.g. {@code -12.05}. */
+    void writeCents(long cents) throws IOException {
+        if (cents < 0) {
+            writeByte('-');
+        }
+        long abs = Math.abs(cents);
+        writeDecimal(abs / 100);
+        writeByte('.');
+        writeByte('0' + (int) (abs % 100 / 10));
+        writeByte('0' + (int) (abs % 10));
+    }
+
+    /** Writes {@code yyyy-MM-dd}. */
+    void writeDate(LocalDate date) throws IOException {
+        writePadded(date.getYear(), 4);
+        writeByte('-');
+        writePadded(date.getMonthValue(), 2);
+        writeByte('-');
+        writePadded(date.getDayOfMonth(), 2);
+    }
+
+    private void writePadded(int value, int width) throws IOException {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            writeByte('0' + value / divisor % 10);
+        }
+    }
+
+    void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            writeByte(text.charAt(i));
+        }
+    }
+
+    void writeUtf8(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | c >> 6);
+                writeByte(0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                writeByte(0xF0 | codePoint >> 18);
+                writeByte(0x80 | codePoint >> 12 & 0x3F);
+                writeByte(0x80 | codePoint >> 6 & 0x3F);
+                writeByte(0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                writeByte('?');
+            } else {
+                writeByte(0xE0 | c >> 12);
+                writeByte(0x80 | c >> 6 & 0x3F);
+                writeByte(0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /** Number of bytes {@link #writeUtf8} produces for {@code text}. */
+    static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /** Writes {@code value} as an unsigned LEB128 varint. */
+    void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /** Zigzag-encodes {@code value} so small negative numbers stay short varints. */
+    void writeSignedVarLong(long value) throws IOException {
+        writeVarLong(value << 1 ^ value >> 63);
+    }
+
+    void writeInt(int value) throws IOException {
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    private void drain() throws IOException {
+        if (gzip != null) {
+            gzip.write(bytes, 0, position);
+        } else {
+            buffer.position(0).limit(position);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        written += position;
+        position = 0;
+    }
+
+    /** Writes out everything buffered, finishing the gzip stream, and closes the channel. */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            if (gzip != null) {
+                gzip.finish();
+                gzip.flush();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
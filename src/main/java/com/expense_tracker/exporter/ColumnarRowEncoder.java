@@ -0,0 +1,219 @@
+package com.expense_tracker.exporter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary columnar format for downstream tools, in the spirit of
+ * Parquet's row groups and column chunks.
+ *
+ * <pre>
+ * file      = "EXPC" version:u8 table:u8 columnCount:u8 column* rowGroup* 0:i32 totalRows:i64
+ * column    = encoding:u8 nameLength:varint name:utf8
+ * rowGroup  = rowCount:i32 (chunkLength:i32 chunk){columnCount}
+ * </pre>
+ *
+ * Integers marked i32/i64 are big-endian, varints are unsigned LEB128 and
+ * zigzag varints hold signed values. Chunks use one of these encodings:
+ * <ul>
+ * <li>{@code DELTA}: the first value then the difference to the previous
+ *     value, all zigzag varints; used for ids and dates (epoch days)</li>
+ * <li>{@code ZIGZAG}: one zigzag varint per row; used for amounts in cents</li>
+ * <li>{@code STRING}: per row a varint of the UTF-8 length plus one (0 for
+ *     null) followed by the bytes</li>
+ * <li>{@code DICTIONARY}: a varint entry count and the entries encoded as
+ *     {@code STRING}, then per row a varint of the entry index plus one (0 for null)</li>
+ * </ul>
+ * A row group holds up to {@value #ROW_GROUP_SIZE} rows; only one group is
+ * buffered at a time, so memory does not depend on the table size. Chunk
+ * lengths are computed before a chunk is written, so readers can skip
+ * columns they do not need.
+ */
+final class ColumnarRowEncoder implements RowEncoder {
+    static final byte VERSION = 1;
+    static final byte DELTA = 1;
+    static final byte ZIGZAG = 2;
+    static final byte STRING = 3;
+    static final byte DICTIONARY = 4;
+
+    private static final byte[] MAGIC = "EXPC".getBytes(StandardCharsets.US_ASCII);
+    private static final int ROW_GROUP_SIZE = 65_536;
+
+    private final ChannelOutput out;
+    private final long[] ids = new long[ROW_GROUP_SIZE];
+    private final long[] dates = new long[ROW_GROUP_SIZE];
+    private final long[] amounts = new long[ROW_GROUP_SIZE];
+    private final String[] labels = new String[ROW_GROUP_SIZE];
+    private final String[] categories = new String[ROW_GROUP_SIZE];
+    private final String[] descriptions = new String[ROW_GROUP_SIZE];
+    private final int[] codes = new int[ROW_GROUP_SIZE];
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final String[] entries = new String[ROW_GROUP_SIZE];
+    private boolean labelsAsDictionary;
+    private int rows;
+    private long totalRows;
+
+    ColumnarRowEncoder(ChannelOutput out) {
+        this.out = out;
+    }
+
+    @Override
+    public void start(HistoryExporter.Table table) throws IOException {
+        labelsAsDictionary = table == HistoryExporter.Table.TRANSACTIONS;
+        String[] columns = table.columns();
+        byte[] encodings = {DELTA, DELTA, labelsAsDictionary ? DICTIONARY : STRING, DICTIONARY, ZIGZAG, STRING};
+        out.writeBytes(MAGIC, 0, MAGIC.length);
+        out.writeByte(VERSION);
+        out.writeByte(table.ordinal() + 1);
+        out.writeByte(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            out.writeByte(encodings[i]);
+            out.writeVarLong(columns[i].length());
+            out.writeAscii(columns[i]);
+        }
+    }
+
+    @Override
+    public void write(ExportRow row) throws IOException {
+        ids[rows] = row.id;
+        dates[rows] = row.date.toEpochDay();
+        labels[rows] = row.label;
+        categories[rows] = row.category;
+        amounts[rows] = row.amountCents;
+        descriptions[rows] = row.description;
+        if (++rows == ROW_GROUP_SIZE) {
+            writeRowGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            writeRowGroup();
+        }
+        out.writeInt(0);
+        out.writeInt((int) (totalRows >>> 32));
+        out.writeInt((int) totalRows);
+    }
+
+    private void writeRowGroup() throws IOException {
+        out.writeInt(rows);
+        writeDelta(ids);
+        writeDelta(dates);
+        if (labelsAsDictionary) {
+            writeDictionary(labels);
+        } else {
+            writeStrings(labels);
+        }
+        writeDictionary(categories);
+        writeZigzag(amounts);
+        writeStrings(descriptions);
+        totalRows += rows;
+        // Drop the references so the rows of this group can be collected
+        Arrays.fill(labels, 0, rows, null);
+        Arrays.fill(categories, 0, rows, null);
+        Arrays.fill(descriptions, 0, rows, null);
+        rows = 0;
+    }
+
+    private void writeDelta(long[] values) throws IOException {
+        int length = 0;
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            length += varLongSize(zigzag(values[i] - previous));
+            previous = values[i];
+        }
+        out.writeInt(length);
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            out.writeSignedVarLong(values[i] - previous);
+            previous = values[i];
+        }
+    }
+
+    private void writeZigzag(long[] values) throws IOException {
+        int length = 0;
+        for (int i = 0; i < rows; i++) {
+            length += varLongSize(zigzag(values[i]));
+        }
+        out.writeInt(length);
+        for (int i = 0; i < rows; i++) {
+            out.writeSignedVarLong(values[i]);
+        }
+    }
+
+    private void writeStrings(String[] values) throws IOException {
+        int length = 0;
+        for (int i = 0; i < rows; i++) {
+            length += stringSize(values[i]);
+        }
+        out.writeInt(length);
+        for (int i = 0; i < rows; i++) {
+            writeString(values[i]);
+        }
+    }
+
+    private void writeDictionary(String[] values) throws IOException {
+        dictionary.clear();
+        int size = 0;
+        for (int i = 0; i < rows; i++) {
+            String value = values[i];
+            if (value == null) {
+                codes[i] = 0;
+                continue;
+            }
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = size + 1;
+                dictionary.put(value, code);
+                entries[size++] = value;
+            }
+            codes[i] = code;
+        }
+        int length = varLongSize(size);
+        for (int i = 0; i < size; i++) {
+            length += stringSize(entries[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            length += varLongSize(codes[i]);
+        }
+        out.writeInt(length);
+        out.writeVarLong(size);
+        for (int i = 0; i < size; i++) {
+            writeString(entries[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            out.writeVarLong(codes[i]);
+        }
+        Arrays.fill(entries, 0, size, null);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeVarLong(ChannelOutput.utf8Length(value) + 1L);
+        out.writeUtf8(value);
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return 1;
+        }
+        int bytes = ChannelOutput.utf8Length(value);
+        return varLongSize(bytes + 1L) + bytes;
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static int varLongSize(long value) {
+        int bits = 64 - Long.numberOfLeadingZeros(value | 1);
+        return (bits + 6) / 7;
+    }
+}
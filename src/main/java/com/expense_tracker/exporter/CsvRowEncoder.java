@@ -0,0 +1,82 @@
+package com.expense_tracker.exporter;
+
+import java.io.IOException;
+
+/**
+ * RFC 4180 CSV with a header row, CRLF line endings and amounts as decimal
+ * numbers with two decimals. Fields are quoted only when they contain a
+ * comma, quote or line break; a missing description is an empty field.
+ */
+final class CsvRowEncoder implements RowEncoder {
+    private final ChannelOutput out;
+
+    CsvRowEncoder(ChannelOutput out) {
+        this.out = out;
+    }
+
+    @Override
+    public void start(HistoryExporter.Table table) throws IOException {
+        String[] columns = table.columns();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.writeByte(',');
+            }
+            out.writeAscii(columns[i]);
+        }
+        endLine();
+    }
+
+    @Override
+    public void write(ExportRow row) throws IOException {
+        out.writeDecimal(row.id);
+        out.writeByte(',');
+        out.writeDate(row.date);
+        out.writeByte(',');
+        writeField(row.label);
+        out.writeByte(',');
+        writeField(row.category);
+        out.writeByte(',');
+        out.writeCents(row.amountCents);
+        out.writeByte(',');
+        writeField(row.description);
+        endLine();
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    private void endLine() throws IOException {
+        out.writeByte('\r');
+        out.writeByte('\n');
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.writeUtf8(value);
+            return;
+        }
+        out.writeByte('"');
+        int from = 0;
+        for (int quote = value.indexOf('"'); quote >= 0; quote = value.indexOf('"', from)) {
+            out.writeUtf8(value.subSequence(from, quote + 1));
+            out.writeByte('"');
+            from = quote + 1;
+        }
+        out.writeUtf8(value.subSequence(from, value.length()));
+        out.writeByte('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
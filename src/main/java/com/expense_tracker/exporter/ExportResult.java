@@ -0,0 +1,16 @@
+package com.expense_tracker.exporter;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one export. {@code encodedBytes} is the size before compression,
+ * {@code fileBytes} the size of the written file.
+ */
+public record ExportResult(long rows, long encodedBytes, long fileBytes, Duration elapsed) {
+
+    /** Rows exported per second. */
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : rows / seconds;
+    }
+}
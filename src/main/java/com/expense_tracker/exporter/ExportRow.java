@@ -0,0 +1,40 @@
+package com.expense_tracker.exporter;
+
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Transaction;
+
+import java.time.LocalDate;
+
+/**
+ * One exported row, reused for every row of an export. Expenses and
+ * transactions share the same six columns; only the third one differs
+ * (the expense name or the transaction type).
+ */
+final class ExportRow {
+    int id;
+    LocalDate date;
+    String label;
+    String category;
+    long amountCents;
+    String description;
+
+    ExportRow set(Expense expense) {
+        id = expense.getId();
+        date = expense.getDate();
+        label = expense.getName();
+        category = expense.getCategoryName();
+        amountCents = expense.getAmountCents();
+        description = expense.getDescription();
+        return this;
+    }
+
+    ExportRow set(Transaction transaction) {
+        id = transaction.getId();
+        date = transaction.getDate();
+        label = transaction.getType().name();
+        category = transaction.getCategory();
+        amountCents = transaction.getAmountCents();
+        description = transaction.getDescription();
+        return this;
+    }
+}
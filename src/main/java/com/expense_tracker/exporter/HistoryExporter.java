@@ -0,0 +1,141 @@
+package com.expense_tracker.exporter;
+
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.util.DatabaseConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Exports all expenses or all transactions as CSV or in a compact binary
+ * columnar format (see {@link ColumnarRowEncoder}), optionally gzipped.
+ *
+ * Rows are read through the DAO's streaming cursor and encoded straight
+ * into one reusable buffer in front of a file channel, so memory use does
+ * not depend on the table size. The export is written to
+ * {@code <file>.part} and moved into place once complete, so a failed
+ * export never leaves a truncated file under the target name.
+ */
+public class HistoryExporter {
+    public enum Table {
+        EXPENSES("id", "date", "name", "category", "amount", "description"),
+        TRANSACTIONS("id", "date", "type", "category", "amount", "description");
+
+        private final String[] columns;
+
+        Table(String... columns) {
+            this.columns = columns;
+        }
+
+        String[] columns() {
+            return columns.clone();
+        }
+    }
+
+    public enum Format {
+        CSV, COLUMNAR;
+
+        /** COLUMNAR for {@code .expc} files, CSV otherwise; a {@code .gz} suffix is ignored. */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".expc") || name.endsWith(".expc.gz") ? COLUMNAR : CSV;
+        }
+    }
+
+    private final ExpensetrackerAppDAO dao;
+
+    public HistoryExporter(ExpensetrackerAppDAO dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Exports {@code table} to {@code file}, choosing the format from the
+     * file name and compressing when it ends in {@code .gz}.
+     */
+    public ExportResult export(Table table, Path file) throws IOException, SQLException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return export(table, file, Format.of(file), name.endsWith(".gz"));
+    }
+
+    /**
+     * Exports every row of {@code table} to {@code file}, replacing it.
+     */
+    public ExportResult export(Table table, Path file, Format format, boolean gzip) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Path part = file.resolveSibling(file.getFileName() + ".part");
+        long rows;
+        long encodedBytes;
+        boolean done = false;
+        try {
+            try (ChannelOutput out = new ChannelOutput(FileChannel.open(part, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), gzip)) {
+                RowEncoder encoder = format == Format.COLUMNAR ? new ColumnarRowEncoder(out) : new CsvRowEncoder(out);
+                encoder.start(table);
+                rows = writeRows(table, encoder);
+                encoder.finish();
+                encodedBytes = out.written();
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            done = true;
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(part);
+            }
+        }
+        return new ExportResult(rows, encodedBytes, Files.size(file), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private long writeRows(Table table, RowEncoder encoder) throws IOException, SQLException {
+        ExportRow row = new ExportRow();
+        long[] rows = new long[1];
+        try {
+            if (table == Table.EXPENSES) {
+                dao.forEachExpense(expense -> write(encoder, row.set(expense), rows));
+            } else {
+                dao.forEachTransaction(transaction -> write(encoder, row.set(transaction), rows));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private static void write(RowEncoder encoder, ExportRow row, long[] rows) {
+        try {
+            encoder.write(row);
+            rows[0]++;
+        } catch (IOException e) {
+            // Unwrapped again in writeRows; the visitor cannot throw checked exceptions
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Exports the table named by the first argument ({@code expenses} or
+     * {@code transactions}) to the file given as the second argument.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: HistoryExporter <expenses|transactions> <file.csv|file.expc>[.gz]");
+            System.exit(2);
+        }
+        try {
+            Table table = Table.valueOf(args[0].toUpperCase(Locale.ROOT));
+            Path file = Path.of(args[1]);
+            ExportResult result = new HistoryExporter(new ExpensetrackerAppDAO()).export(table, file);
+            System.out.printf("Exported %,d rows (%,d bytes, %,d on disk) in %.1f s, %,.0f rows/s%n",
+                result.rows(), result.encodedBytes(), result.fileBytes(),
+                result.elapsed().toMillis() / 1000.0, result.rowsPerSecond());
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.expense_tracker.exporter;
+
+import java.io.IOException;
+
+/**
+ * Encodes rows into a {@link ChannelOutput} in one export format.
+ */
+interface RowEncoder {
+
+    void start(HistoryExporter.Table table) throws IOException;
+
+    void write(ExportRow row) throws IOException;
+
+    /** Writes whatever the format needs after the last row. */
+    void finish() throws IOException;
+}
@@ -1,27 +1,47 @@
 package com.expense_tracker.gui;
 
-import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.dao.AsyncExpensetrackerAppDAO;
+import com.expense_tracker.dao.ChangeVersions;
+import com.expense_tracker.dao.OptimisticLockException;
 import com.expense_tracker.model.Category;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CategoryManagementDialog extends JDialog {
-    private final ExpensetrackerAppDAO dao;
+    private final AsyncExpensetrackerAppDAO dao;
+    private final SwingAsync.LatestRequest<List<Category>> categoriesRequest = new SwingAsync.LatestRequest<>();
+    private final ChangePoller changePoller;
+    // Categories in the table by id, with the versions they were loaded at
+    private final Map<Integer, Category> loadedById = new HashMap<>();
+    // Version the table is current with; -1 until known
+    private long categoriesVersion = -1;
+    // The category shown in the form; updates are checked against its version
+    private Category editing;
     private JTable categoryTable;
     private JTextField nameField;
     
-    public CategoryManagementDialog(JFrame parent, ExpensetrackerAppDAO dao) {
+    public CategoryManagementDialog(JFrame parent, AsyncExpensetrackerAppDAO dao) {
         super(parent, "Manage Categories", true);
         this.dao = dao;
         initializeUI();
-        loadCategories();
+        this.changePoller = new ChangePoller(dao, this::onChangeVersions);
+        changePoller.start(versions -> {
+            if (versions != null) {
+                categoriesVersion = versions.categories();
+            }
+            loadCategories();
+        });
     }
     
     private void initializeUI() {
         setSize(500, 400);
         setLocationRelativeTo(getParent());
+        // Disposing also stops change polling
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -83,6 +103,7 @@ public class CategoryManagementDialog extends JDialog {
                 if (selectedRow >= 0) {
                     int id = (int) categoryTable.getValueAt(selectedRow, 0);
                     String name = (String) categoryTable.getValueAt(selectedRow, 1);
+                    editing = loadedById.get(id);
                     nameField.setText(name);
                 }
             }
@@ -107,22 +128,27 @@ public class CategoryManagementDialog extends JDialog {
     }
     
     private void loadCategories() {
-        DefaultTableModel model = (DefaultTableModel) categoryTable.getModel();
-        model.setRowCount(0); // Clear existing data
-        
-        try {
-            List<Category> categories = dao.getAllCategories();
+        categoriesRequest.start(dao.getAllCategories(), categories -> {
+            DefaultTableModel model = (DefaultTableModel) categoryTable.getModel();
+            model.setRowCount(0); // Clear existing data
+            loadedById.clear();
             for (Category category : categories) {
+                loadedById.put(category.getId(), category);
                 model.addRow(new Object[]{
                     category.getId(),
                     category.getName()
                 });
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error loading categories: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
+        }, e -> showError("Error loading categories: ", e));
+    }
+    
+    private void onChangeVersions(ChangeVersions versions) {
+        if (versions.categories() != categoriesVersion) {
+            boolean known = categoriesVersion >= 0;
+            categoriesVersion = versions.categories();
+            if (known) {
+                loadCategories();
+            }
         }
     }
     
@@ -136,9 +162,9 @@ public class CategoryManagementDialog extends JDialog {
             return;
         }
         
-        try {
-            Category category = new Category(name);
-            if (dao.addCategory(category)) {
+        Category category = new Category(name);
+        SwingAsync.onEdt(dao.addCategory(category), added -> {
+            if (added) {
                 loadCategories();
                 clearForm();
                 JOptionPane.showMessageDialog(this, 
@@ -146,17 +172,13 @@ public class CategoryManagementDialog extends JDialog {
                     "Success", 
                     JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error adding category: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> showError("Error adding category: ", e));
     }
     
     private void updateCategory() {
-        int selectedRow = categoryTable.getSelectedRow();
-        if (selectedRow < 0) {
+        // The form may outlive the selection when the table reloads, so the
+        // update goes to the category the form was filled from
+        if (editing == null) {
             JOptionPane.showMessageDialog(this, 
                 "Please select a category to update", 
                 "Error", 
@@ -173,24 +195,36 @@ public class CategoryManagementDialog extends JDialog {
             return;
         }
         
-        try {
-            int id = (int) categoryTable.getValueAt(selectedRow, 0);
-            Category category = new Category(id, name);
-            
-            if (dao.updateCategory(category)) {
-                loadCategories();
-                clearForm();
+        Category category = new Category(editing.getId(), name);
+        category.setVersion(editing.getVersion());
+        
+        SwingAsync.onEdt(dao.updateCategory(category), updated -> {
+            loadCategories();
+            clearForm();
+            if (updated) {
                 JOptionPane.showMessageDialog(this, 
                     "Category updated successfully", 
                     "Success", 
                     JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                    "The category was deleted by someone else", 
+                    "Error", 
+                    JOptionPane.ERROR_MESSAGE);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error updating category: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> {
+            if (e instanceof OptimisticLockException) {
+                // Keep the form so the new name can be reapplied
+                editing = null;
+                loadCategories();
+                JOptionPane.showMessageDialog(this, 
+                    e.getMessage() + "\nSelect it again to see the current name, then reapply your change.", 
+                    "Update Conflict", 
+                    JOptionPane.WARNING_MESSAGE);
+            } else {
+                showError("Error updating category: ", e);
+            }
+        });
     }
     
     private void deleteCategory() {
@@ -209,9 +243,9 @@ public class CategoryManagementDialog extends JDialog {
             JOptionPane.YES_NO_OPTION);
             
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                int id = (int) categoryTable.getValueAt(selectedRow, 0);
-                if (dao.deleteCategory(id)) {
+            int id = (int) categoryTable.getValueAt(selectedRow, 0);
+            SwingAsync.onEdt(dao.deleteCategory(id), deleted -> {
+                if (deleted) {
                     loadCategories();
                     clearForm();
                     JOptionPane.showMessageDialog(this, 
@@ -219,16 +253,25 @@ public class CategoryManagementDialog extends JDialog {
                         "Success", 
                         JOptionPane.INFORMATION_MESSAGE);
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error deleting category: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            }, e -> showError("Error deleting category: ", e));
         }
     }
     
+    @Override
+    public void dispose() {
+        changePoller.stop();
+        super.dispose();
+    }
+    
+    private void showError(String prefix, Throwable e) {
+        JOptionPane.showMessageDialog(this, 
+            prefix + e.getMessage(),
+            "Error",
+            JOptionPane.ERROR_MESSAGE);
+    }
+    
     private void clearForm() {
+        editing = null;
         nameField.setText("");
         categoryTable.clearSelection();
     }
@@ -0,0 +1,93 @@
+package com.expense_tracker.gui;
+
+import com.expense_tracker.dao.AsyncExpensetrackerAppDAO;
+import com.expense_tracker.dao.ChangeVersions;
+
+import javax.swing.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Polls the DAO's change versions on a Swing timer, so a dialog notices
+ * writes made by other clients and can refresh just what changed.
+ *
+ * A poll is a single primary-key read. A tick is skipped while the previous
+ * poll is still running, and a failed poll is simply tried again on the next
+ * tick. The interval is {@code expense.changes.pollSeconds} (default 5);
+ * 0 turns polling off. Must be used from the EDT.
+ */
+final class ChangePoller {
+    private static final int POLL_SECONDS = Integer.getInteger("expense.changes.pollSeconds", 5);
+
+    private final AsyncExpensetrackerAppDAO dao;
+    private final Consumer<ChangeVersions> onVersions;
+    private final Timer timer;
+    private CompletableFuture<ChangeVersions> inFlight;
+    // Set by stop(); a callback that was already queued must not restart polling
+    private boolean stopped;
+
+    ChangePoller(AsyncExpensetrackerAppDAO dao, Consumer<ChangeVersions> onVersions) {
+        this.dao = dao;
+        this.onVersions = onVersions;
+        this.timer = new Timer((int) TimeUnit.SECONDS.toMillis(Math.max(1, POLL_SECONDS)), e -> poll());
+    }
+
+    /**
+     * Reads the current versions and hands them to {@code onBaseline}, or
+     * {@code null} if they could not be read, then starts polling. Data loaded
+     * from {@code onBaseline} on is current with those versions, so the first
+     * poll only reports writes made after it.
+     */
+    void start(Consumer<ChangeVersions> onBaseline) {
+        inFlight = dao.getChangeVersions();
+        SwingAsync.onEdt(inFlight, versions -> {
+            if (stopped) {
+                return;
+            }
+            inFlight = null;
+            onBaseline.accept(versions);
+            startTimer();
+        }, e -> {
+            if (stopped) {
+                return;
+            }
+            inFlight = null;
+            onBaseline.accept(null);
+            startTimer();
+        });
+    }
+
+    void stop() {
+        stopped = true;
+        timer.stop();
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+    }
+
+    private void startTimer() {
+        if (POLL_SECONDS > 0 && !stopped) {
+            timer.start();
+        }
+    }
+
+    private void poll() {
+        if (stopped || inFlight != null) {
+            return;
+        }
+        CompletableFuture<ChangeVersions> request = dao.getChangeVersions();
+        inFlight = request;
+        SwingAsync.onEdt(request, versions -> {
+            if (inFlight == request && !stopped) {
+                inFlight = null;
+                onVersions.accept(versions);
+            }
+        }, e -> {
+            if (inFlight == request) {
+                inFlight = null;
+            }
+        });
+    }
+}
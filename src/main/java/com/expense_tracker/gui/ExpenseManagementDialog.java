@@ -1,36 +1,91 @@
 package com.expense_tracker.gui;
 
-import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.dao.AsyncExpensetrackerAppDAO;
+import com.expense_tracker.dao.ChangeVersions;
+import com.expense_tracker.dao.ExpenseChanges;
+import com.expense_tracker.dao.OptimisticLockException;
 import com.expense_tracker.model.Category;
 import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Money;
+import com.expense_tracker.search.ExpenseSearchIndex;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ExpenseManagementDialog extends JDialog {
-    private final ExpensetrackerAppDAO dao;
+    // More polled changes than this reload the table instead
+    private static final int MAX_POLLED_CHANGES = 1_000;
+
+    private final AsyncExpensetrackerAppDAO dao;
+    private final SwingAsync.LatestRequest<List<Category>> categoriesRequest = new SwingAsync.LatestRequest<>();
+    private final SwingAsync.LatestRequest<ExpenseChanges> changesRequest = new SwingAsync.LatestRequest<>();
+    private final ChangePoller changePoller;
+    // Versions the table and category list are current with; -1 until known
+    private long expensesVersion = -1;
+    private long categoriesVersion = -1;
+    // The expense shown in the form; updates are checked against its version
+    private Expense editing;
+    // Category id -> index in categoryCombo, rebuilt whenever categories are reloaded
+    private final Map<Integer, Integer> categoryIndexById = new HashMap<>();
     private JTable expenseTable;
+    private ExpenseTableModel tableModel;
     private JTextField nameField;
     private JComboBox<Category> categoryCombo;
     private JFormattedTextField amountField;
     private JTextArea descriptionArea;
     private JFormattedTextField dateField;
+    private JTextField searchField;
+    private JLabel matchesLabel;
+    private ExpenseSearchIndex searchIndex;
+    
+    public ExpenseManagementDialog(JFrame parent, AsyncExpensetrackerAppDAO dao) {
+        this(parent, dao, null);
+    }
     
-    public ExpenseManagementDialog(JFrame parent, ExpensetrackerAppDAO dao) {
+    /**
+     * @param searchIndex completes with the index behind the search box, which
+     *                    stays disabled until then; {@code null} for no search
+     */
+    public ExpenseManagementDialog(JFrame parent, AsyncExpensetrackerAppDAO dao,
+                                   CompletableFuture<ExpenseSearchIndex> searchIndex) {
         super(parent, "Manage Expenses", true);
         this.dao = dao;
         initializeUI();
-        loadExpenses();
-        loadCategories();
+        this.changePoller = new ChangePoller(dao, this::onChangeVersions);
+        changePoller.start(versions -> {
+            if (versions != null) {
+                expensesVersion = versions.expenses();
+                categoriesVersion = versions.categories();
+            }
+            loadExpenses();
+            loadCategories();
+        });
+        if (searchIndex != null) {
+            // The shared index misses other clients' writes while no dialog
+            // polls, so it catches up before the search box is enabled
+            SwingAsync.onEdt(searchIndex.thenCompose(index -> dao.submit(d -> {
+                index.sync(d);
+                return index;
+            })), index -> {
+                this.searchIndex = index;
+                searchField.setEnabled(true);
+                searchField.setToolTipText("Find expenses by words in their name or description");
+            }, e -> searchField.setToolTipText("Search is unavailable: " + e.getMessage()));
+        }
     }
     
     private void initializeUI() {
         setSize(800, 600);
         setLocationRelativeTo(getParent());
+        // Disposing also stops change polling
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -126,14 +181,8 @@ public class ExpenseManagementDialog extends JDialog {
         gbc.gridwidth = 2;
         formPanel.add(buttonPanel, gbc);
         
-        // Table for displaying expenses
-        String[] columnNames = {"ID", "Name", "Category", "Amount", "Date", "Description"};
-        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-        };
+        // Table for displaying expenses, loaded page by page as the user scrolls
+        tableModel = new ExpenseTableModel(dao, e -> showError("Error loading expenses: ", e));
         
         expenseTable = new JTable(tableModel);
         expenseTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -148,9 +197,40 @@ public class ExpenseManagementDialog extends JDialog {
         
         JScrollPane scrollPane = new JScrollPane(expenseTable);
         
+        // Search box; filters the table on every keystroke
+        searchField = new JTextField(20);
+        searchField.setEnabled(false);
+        searchField.setToolTipText("Building the search index...");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applySearch();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applySearch();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applySearch();
+            }
+        });
+        matchesLabel = new JLabel(" ");
+        
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        searchPanel.add(matchesLabel, BorderLayout.EAST);
+        
+        JPanel tablePanel = new JPanel(new BorderLayout(0, 5));
+        tablePanel.add(searchPanel, BorderLayout.NORTH);
+        tablePanel.add(scrollPane, BorderLayout.CENTER);
+        
         // Add components to main panel
         mainPanel.add(formPanel, BorderLayout.NORTH);
-        mainPanel.add(scrollPane, BorderLayout.CENTER);
+        mainPanel.add(tablePanel, BorderLayout.CENTER);
         
         // Close button
         JButton closeButton = new JButton("Close");
@@ -165,79 +245,117 @@ public class ExpenseManagementDialog extends JDialog {
     }
     
     private void loadCategories() {
-        try {
-            List<Category> categories = dao.getAllCategories();
+        categoriesRequest.start(dao.getAllCategories(), categories -> {
+            // Keep the form's choice when the list is reloaded while editing
+            Category selected = (Category) categoryCombo.getSelectedItem();
             categoryCombo.removeAllItems();
+            categoryIndexById.clear();
             for (Category category : categories) {
+                categoryIndexById.put(category.getId(), categoryCombo.getItemCount());
                 categoryCombo.addItem(category);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error loading categories: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
+            Integer selectedIndex = selected == null ? null : categoryIndexById.get(selected.getId());
+            if (selectedIndex != null) {
+                categoryCombo.setSelectedIndex(selectedIndex);
+            }
+        }, e -> showError("Error loading categories: ", e));
+    }
+    
+    private void onChangeVersions(ChangeVersions versions) {
+        if (expensesVersion < 0 || categoriesVersion < 0) {
+            // The baseline could not be read when the dialog opened
+            expensesVersion = versions.expenses();
+            categoriesVersion = versions.categories();
+            return;
+        }
+        if (versions.categories() != categoriesVersion) {
+            categoriesVersion = versions.categories();
+            loadCategories();
+        }
+        if (versions.expenses() != expensesVersion) {
+            changesRequest.start(dao.getExpenseChangesSince(expensesVersion, MAX_POLLED_CHANGES), changes -> {
+                expensesVersion = changes.version();
+                applyChanges(changes);
+            }, e -> { }); // Tried again on the next poll
+        }
+    }
+    
+    /**
+     * Brings the search index and the table up to date with expense writes,
+     * including this dialog's own, which come back here too.
+     */
+    private void applyChanges(ExpenseChanges changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (searchIndex != null) {
+            // The index catches up off the EDT; search results follow once it has
+            ExpenseSearchIndex index = searchIndex;
+            SwingAsync.onEdt(dao.submit(d -> {
+                index.sync(d);
+                return null;
+            }), synced -> {
+                if (isSearching()) {
+                    applySearch();
+                }
+            }, e -> showError("Error updating the search index: ", e));
+        }
+        if (isSearching()) {
+            return;
+        }
+        if (!changes.complete() || !changes.deletedIds().isEmpty() || !tableModel.replaceRows(changes.changed())) {
+            tableModel.refresh();
         }
     }
     
     private void loadExpenses() {
-        DefaultTableModel model = (DefaultTableModel) expenseTable.getModel();
-        model.setRowCount(0); // Clear existing data
-        
-        try {
-            List<Expense> expenses = dao.getAllExpenses();
-            for (Expense expense : expenses) {
-                model.addRow(new Object[]{
-                    expense.getId(),
-                    expense.getName(),
-                    expense.getCategoryName(),
-                    String.format("%.2f", expense.getAmount()),
-                    expense.getDate(),
-                    expense.getDescription()
-                });
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error loading expenses: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
+        if (isSearching()) {
+            // The index applies writes as they commit, so this sees the change
+            applySearch();
+        } else {
+            tableModel.refresh();
+        }
+    }
+    
+    private boolean isSearching() {
+        return searchIndex != null && !searchField.getText().isBlank();
+    }
+    
+    private void applySearch() {
+        if (searchIndex == null) {
+            return;
         }
+        // Answered from memory in a few milliseconds, so it runs on the EDT
+        int[] ids = searchIndex.search(searchField.getText());
+        tableModel.setFilter(ids);
+        matchesLabel.setText(ids == null ? " " : ids.length == 1 ? "1 match" : ids.length + " matches");
     }
     
     private void loadExpenseToForm(int rowIndex) {
-        try {
-            int id = (int) expenseTable.getValueAt(rowIndex, 0);
-            Expense expense = dao.getExpenseById(id);
-            
-            if (expense != null) {
-                nameField.setText(expense.getName());
-                
-                // Set the selected category in the combo box
-                for (int i = 0; i < categoryCombo.getItemCount(); i++) {
-                    Category category = categoryCombo.getItemAt(i);
-                    if (category.getId() == expense.getCategoryId()) {
-                        categoryCombo.setSelectedIndex(i);
-                        break;
-                    }
-                }
-                
-                amountField.setValue(expense.getAmount());
-                dateField.setValue(java.sql.Date.valueOf(expense.getDate()));
-                descriptionArea.setText(expense.getDescription());
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error loading expense details: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
+        // The row was loaded with its page, so the form is filled from memory
+        Expense expense = tableModel.getExpenseAt(rowIndex);
+        if (expense == null) {
+            return; // Row is still loading
+        }
+        editing = expense;
+        nameField.setText(expense.getName());
+        
+        Integer categoryIndex = categoryIndexById.get(expense.getCategoryId());
+        if (categoryIndex != null) {
+            categoryCombo.setSelectedIndex(categoryIndex);
         }
+        
+        amountField.setValue(Money.toDecimal(expense.getAmountCents()));
+        dateField.setValue(java.sql.Date.valueOf(expense.getDate()));
+        descriptionArea.setText(expense.getDescription());
     }
     
     private void addExpense() {
-        try {
-            Expense expense = createExpenseFromForm();
-            if (expense == null) return;
-            
-            if (dao.addExpense(expense)) {
+        Expense expense = createExpenseFromForm();
+        if (expense == null) return;
+        
+        SwingAsync.onEdt(dao.addExpense(expense), added -> {
+            if (added) {
                 loadExpenses();
                 clearForm();
                 JOptionPane.showMessageDialog(this, 
@@ -245,17 +363,13 @@ public class ExpenseManagementDialog extends JDialog {
                     "Success", 
                     JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error adding expense: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> showError("Error adding expense: ", e));
     }
     
     private void updateExpense() {
-        int selectedRow = expenseTable.getSelectedRow();
-        if (selectedRow < 0) {
+        // The form may outlive the selection when the table reloads, so the
+        // update goes to the expense the form was filled from
+        if (editing == null) {
             JOptionPane.showMessageDialog(this, 
                 "Please select an expense to update", 
                 "Error", 
@@ -263,27 +377,39 @@ public class ExpenseManagementDialog extends JDialog {
             return;
         }
         
-        try {
-            int id = (int) expenseTable.getValueAt(selectedRow, 0);
-            Expense expense = createExpenseFromForm();
-            if (expense == null) return;
-            
-            expense.setId(id);
-            
-            if (dao.updateExpense(expense)) {
-                loadExpenses();
-                clearForm();
+        Expense expense = createExpenseFromForm();
+        if (expense == null) return;
+        
+        expense.setId(editing.getId());
+        expense.setVersion(editing.getVersion());
+        
+        SwingAsync.onEdt(dao.updateExpense(expense), updated -> {
+            loadExpenses();
+            clearForm();
+            if (updated) {
                 JOptionPane.showMessageDialog(this, 
                     "Expense updated successfully", 
                     "Success", 
                     JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                    "The expense was deleted by someone else", 
+                    "Error", 
+                    JOptionPane.ERROR_MESSAGE);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error updating expense: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> {
+            if (e instanceof OptimisticLockException) {
+                // Keep the form so the edits can be compared and reapplied
+                editing = null;
+                loadExpenses();
+                JOptionPane.showMessageDialog(this, 
+                    e.getMessage() + "\nSelect it again to see the current values, then reapply your changes.", 
+                    "Update Conflict", 
+                    JOptionPane.WARNING_MESSAGE);
+            } else {
+                showError("Error updating expense: ", e);
+            }
+        });
     }
     
     private void deleteExpense() {
@@ -302,9 +428,11 @@ public class ExpenseManagementDialog extends JDialog {
             JOptionPane.YES_NO_OPTION);
             
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                int id = (int) expenseTable.getValueAt(selectedRow, 0);
-                if (dao.deleteExpense(id)) {
+            Expense selected = tableModel.getExpenseAt(selectedRow);
+            if (selected == null) return;
+            int id = selected.getId();
+            SwingAsync.onEdt(dao.deleteExpense(id), deleted -> {
+                if (deleted) {
                     loadExpenses();
                     clearForm();
                     JOptionPane.showMessageDialog(this, 
@@ -312,12 +440,7 @@ public class ExpenseManagementDialog extends JDialog {
                         "Success", 
                         JOptionPane.INFORMATION_MESSAGE);
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error deleting expense: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            }, e -> showError("Error deleting expense: ", e));
         }
     }
     
@@ -340,10 +463,10 @@ public class ExpenseManagementDialog extends JDialog {
             return null;
         }
         
-        BigDecimal amount;
+        long amountCents;
         try {
-            amount = new BigDecimal(amountField.getText().trim());
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            amountCents = Money.parse(amountField.getText());
+            if (amountCents <= 0) {
                 throw new NumberFormatException("Amount must be greater than zero");
             }
         } catch (NumberFormatException e) {
@@ -371,14 +494,28 @@ public class ExpenseManagementDialog extends JDialog {
         expense.setName(name);
         expense.setCategoryId(selectedCategory.getId());
         expense.setCategoryName(selectedCategory.getName());
-        expense.setAmount(amount);
+        expense.setAmountCents(amountCents);
         expense.setDate(date);
         expense.setDescription(description);
         
         return expense;
     }
     
+    @Override
+    public void dispose() {
+        changePoller.stop();
+        super.dispose();
+    }
+    
+    private void showError(String prefix, Throwable e) {
+        JOptionPane.showMessageDialog(this, 
+            prefix + e.getMessage(),
+            "Error",
+            JOptionPane.ERROR_MESSAGE);
+    }
+    
     private void clearForm() {
+        editing = null;
         nameField.setText("");
         if (categoryCombo.getItemCount() > 0) {
             categoryCombo.setSelectedIndex(0);
@@ -0,0 +1,332 @@
+package com.expense_tracker.gui;
+
+import com.expense_tracker.dao.AsyncExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Money;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Table model that loads expenses page by page as rows are displayed.
+ *
+ * Pages are fetched with the DAO's keyset query, so each fetch needs the last
+ * expense of the previous page. Those boundary rows are kept for every page
+ * seen so far, while the page contents themselves live in a small LRU window
+ * and are dropped again once the user scrolls away. Jumping past the known
+ * boundaries first skips ahead with a keys-only query from the nearest one,
+ * so only the requested page is read. A page request that would skip over
+ * a page still being fetched waits for it and then starts from its boundary.
+ *
+ * Every cached row is also indexed by id, so selection handling can read the
+ * full expense from memory instead of querying the database again.
+ *
+ * With {@link #setFilter} the model shows only the given expense ids, in
+ * the given order, and pages are fetched by id instead.
+ *
+ * {@link #replaceRows} patches rows changed elsewhere into the loaded pages
+ * without going back to the database, as long as they keep their position.
+ *
+ * All fetching happens on the DAO's worker threads. A row whose page is not
+ * loaded yet renders as blank and is repainted when the page arrives. A page
+ * that fails to load stays blank until the next {@link #refresh()}, and only
+ * the first failure after a refresh is passed to the error handler. All
+ * methods must be called on the Event Dispatch Thread.
+ */
+public class ExpenseTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMN_NAMES = {"ID", "Name", "Category", "Amount", "Date", "Description"};
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int DEFAULT_MAX_CACHED_PAGES = 5;
+
+    private final transient AsyncExpensetrackerAppDAO dao;
+    private final int pageSize;
+    private final transient Map<Integer, List<Expense>> pages;
+    // pageCursors.get(p) is the last row of page p - 1 (only id and date may
+    // be set), or null for the first page; only known boundaries are present
+    private final transient TreeMap<Integer, Expense> pageCursors = new TreeMap<>();
+    private final transient Map<Integer, Expense> rowsById = new HashMap<>();
+    private final transient NavigableSet<Integer> pagesInFlight = new TreeSet<>();
+    // Pages whose request waits for an earlier page in flight
+    private final transient Set<Integer> pagesWaiting = new HashSet<>();
+    // Pages whose fetch failed; not requested again until the next refresh
+    private final transient Set<Integer> pagesFailed = new HashSet<>();
+    private final transient SwingAsync.LatestRequest<Integer> countRequest = new SwingAsync.LatestRequest<>();
+    private final transient Consumer<Throwable> errorHandler;
+    // Ids to show instead of the whole table, or null
+    private int[] filter;
+    private int rowCount;
+    // Bumped on refresh so pages fetched for older data are discarded
+    private int generation;
+    // Whether a page failure was already reported in this generation
+    private boolean failureReported;
+
+    public ExpenseTableModel(AsyncExpensetrackerAppDAO dao, Consumer<Throwable> errorHandler) {
+        this(dao, errorHandler, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    public ExpenseTableModel(AsyncExpensetrackerAppDAO dao, Consumer<Throwable> errorHandler, int pageSize, int maxCachedPages) {
+        this.dao = dao;
+        this.errorHandler = errorHandler;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Expense>> eldest) {
+                if (size() > maxCachedPages) {
+                    for (Expense expense : eldest.getValue()) {
+                        rowsById.remove(expense.getId());
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+        pageCursors.put(0, null);
+    }
+
+    /**
+     * Re-reads the row count in the background, then drops every cached page.
+     * While a filter is set, just drops the cached pages.
+     */
+    public void refresh() {
+        if (filter != null) {
+            reset(filter.length);
+            return;
+        }
+        countRequest.start(dao.countExpenses(), this::reset, errorHandler);
+    }
+
+    /**
+     * Shows only the expenses with the given ids, in that order, or the
+     * whole table again when {@code ids} is {@code null}.
+     */
+    public void setFilter(int[] ids) {
+        filter = ids;
+        countRequest.cancel();
+        refresh();
+    }
+
+    private void reset(int count) {
+        generation++;
+        pages.clear();
+        rowsById.clear();
+        pagesInFlight.clear();
+        pagesWaiting.clear();
+        pagesFailed.clear();
+        failureReported = false;
+        pageCursors.clear();
+        pageCursors.put(0, null);
+        rowCount = count;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Replaces loaded rows with the given newer values, e.g. changes found by
+     * polling. An expense is replaced in place if its row is loaded and,
+     * unless a filter is set, its date (and so its position) is unchanged.
+     *
+     * @return {@code false} if some expense was not replaced because it is
+     *         not loaded, may be new or has moved; {@link #refresh()} then
+     */
+    public boolean replaceRows(List<Expense> changed) {
+        boolean allReplaced = true;
+        for (Expense expense : changed) {
+            Expense loaded = rowsById.get(expense.getId());
+            if (loaded == null || (filter == null && !loaded.getDate().equals(expense.getDate()))) {
+                allReplaced = false;
+                continue;
+            }
+            for (Map.Entry<Integer, List<Expense>> entry : pages.entrySet()) {
+                List<Expense> page = entry.getValue();
+                int offset = page.indexOf(loaded);
+                if (offset >= 0) {
+                    page.set(offset, expense);
+                    rowsById.put(expense.getId(), expense);
+                    int row = entry.getKey() * pageSize + offset;
+                    if (row < rowCount) {
+                        fireTableRowsUpdated(row, row);
+                    }
+                    break;
+                }
+            }
+        }
+        return allReplaced;
+    }
+
+    /**
+     * Returns the expense shown in {@code rowIndex}, or {@code null} while its
+     * page is still loading. A missing page is requested in the background.
+     */
+    public Expense getExpenseAt(int rowIndex) {
+        int pageIndex = rowIndex / pageSize;
+        List<Expense> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = rowIndex % pageSize;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * Returns a loaded expense by id, or {@code null} if its page is not cached.
+     */
+    public Expense getExpenseById(int id) {
+        return rowsById.get(id);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make table non-editable
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Expense expense = getExpenseAt(rowIndex);
+        if (expense == null) {
+            return null;
+        }
+        switch (columnIndex) {
+            case 0: return expense.getId();
+            case 1: return expense.getName();
+            case 2: return expense.getCategoryName();
+            case 3: return Money.format(expense.getAmountCents());
+            case 4: return expense.getDate();
+            case 5: return expense.getDescription();
+            default: return null;
+        }
+    }
+
+    private void requestPage(int pageIndex) {
+        if (pagesInFlight.contains(pageIndex) || pagesWaiting.contains(pageIndex)
+                || pagesFailed.contains(pageIndex)) {
+            return;
+        }
+        int requestGeneration = generation;
+        if (filter != null) {
+            pagesInFlight.add(pageIndex);
+            int from = pageIndex * pageSize;
+            int[] ids = Arrays.copyOfRange(filter, from, Math.min(filter.length, from + pageSize));
+            SwingAsync.onEdt(dao.getExpensesByIds(ids), page -> {
+                if (requestGeneration == generation) {
+                    pagesInFlight.remove(pageIndex);
+                    storePage(pageIndex, null, page);
+                }
+            }, error -> pageFailed(pageIndex, requestGeneration, error));
+            return;
+        }
+        // Start from the nearest page whose starting cursor is known
+        Map.Entry<Integer, Expense> nearest = pageCursors.floorEntry(pageIndex);
+        int firstPage = nearest.getKey();
+        Integer between = pagesInFlight.higher(firstPage);
+        if (between != null && between < pageIndex) {
+            // That page's last row is a nearer cursor; retry once it has arrived
+            pagesWaiting.add(pageIndex);
+            return;
+        }
+        pagesInFlight.add(pageIndex);
+        Expense cursor = nearest.getValue();
+        int skippedRows = (pageIndex - firstPage) * pageSize;
+        
+        SwingAsync.onEdt(dao.submit(d -> {
+            Expense after = cursor;
+            if (skippedRows > 0) {
+                after = d.getExpenseKeyAt(cursor, skippedRows - 1);
+                if (after == null) {
+                    return new FetchedPage(null, List.<Expense>of()); // The table ends before this page
+                }
+            }
+            return new FetchedPage(after, d.getExpensesPage(after, pageSize));
+        }), fetched -> {
+            if (requestGeneration == generation) {
+                pagesInFlight.remove(pageIndex);
+                storePage(pageIndex, fetched.cursor(), fetched.rows());
+            }
+        }, error -> pageFailed(pageIndex, requestGeneration, error));
+    }
+
+    private record FetchedPage(Expense cursor, List<Expense> rows) {
+    }
+
+    /**
+     * Caches {@code page}, fetched after {@code cursor}, repaints its rows and
+     * retries the requests that were waiting for it.
+     */
+    private void storePage(int pageIndex, Expense cursor, List<Expense> page) {
+        pages.put(pageIndex, page);
+        for (Expense expense : page) {
+            rowsById.put(expense.getId(), expense);
+        }
+        if (filter == null) {
+            if (cursor != null) {
+                pageCursors.putIfAbsent(pageIndex, cursor);
+            }
+            if (page.size() == pageSize) {
+                pageCursors.putIfAbsent(pageIndex + 1, page.get(page.size() - 1));
+            }
+        }
+        // An empty or short page means the table ended early (rows were
+        // deleted); it stays cached instead of being fetched again
+        int firstRow = pageIndex * pageSize;
+        int lastRow = Math.min(rowCount, firstRow + pageSize) - 1;
+        if (firstRow <= lastRow) {
+            fireTableRowsUpdated(firstRow, lastRow);
+        }
+        retryWaitingPages();
+    }
+
+    private void retryWaitingPages() {
+        if (pagesWaiting.isEmpty()) {
+            return;
+        }
+        List<Integer> waiting = new ArrayList<>(pagesWaiting);
+        pagesWaiting.clear();
+        for (int pageIndex : waiting) {
+            requestPage(pageIndex);
+        }
+    }
+
+    private void pageFailed(int pageIndex, int requestGeneration, Throwable error) {
+        if (requestGeneration == generation) {
+            pagesInFlight.remove(pageIndex);
+            // Reporting the error repaints the table, so the failed page is
+            // left blank until refresh() instead of being requested again
+            // right away; waiting pages are requested again when next painted
+            pagesFailed.add(pageIndex);
+            pagesWaiting.clear();
+            if (!failureReported) {
+                failureReported = true;
+                errorHandler.accept(error);
+            }
+        }
+    }
+}
@@ -1,28 +1,49 @@
 package com.expense_tracker.gui;
 
+import com.expense_tracker.Main;
+import com.expense_tracker.dao.AsyncExpensetrackerAppDAO;
 import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.search.ExpenseSearchIndex;
 import com.expense_tracker.util.DatabaseConnection;
+import com.expense_tracker.util.StartupTimer;
 
 import javax.swing.*;
 import java.awt.*;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * The main window. It is shown before the database is ready; the connection
+ * pool and schema check run in the background (see {@link #startBackgroundInit()})
+ * and the buttons are enabled once the DAO is available.
+ */
 public class MainFrame extends JFrame {
     private static final long serialVersionUID = 1L;
-    private final ExpensetrackerAppDAO dao;
-    
-    public MainFrame(ExpensetrackerAppDAO dao) {
-        this.dao = dao;
+    private transient AsyncExpensetrackerAppDAO dao;
+    private transient CompletableFuture<ExpenseSearchIndex> searchIndex;
+    private boolean painted;
+
+    private JButton manageCategoriesBtn;
+    private JButton manageExpensesBtn;
+    private JProgressBar progressBar;
+    private JLabel statusLabel;
+
+    public MainFrame() {
         initializeUI();
         setupLayout();
     }
-    
+
+    public MainFrame(ExpensetrackerAppDAO dao) {
+        this();
+        onDaoReady(dao);
+    }
+
     private void initializeUI() {
         setTitle("Expense Tracker");
         setSize(500, 300);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
-        
+
         // Set look and feel
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -30,68 +51,124 @@ public class MainFrame extends JFrame {
             e.printStackTrace();
         }
     }
-    
+
     private void setupLayout() {
         JPanel mainPanel = new JPanel(new GridBagLayout());
         mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
+
         JLabel titleLabel = new JLabel("Expense Tracker", SwingConstants.CENTER);
         titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
         titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 30, 0));
-        
-        JButton manageCategoriesBtn = new JButton("Manage Categories");
+
+        manageCategoriesBtn = new JButton("Manage Categories");
         manageCategoriesBtn.setPreferredSize(new Dimension(200, 50));
+        manageCategoriesBtn.setEnabled(false);
         manageCategoriesBtn.addActionListener(e -> {
             CategoryManagementDialog dialog = new CategoryManagementDialog(this, dao);
             dialog.setVisible(true);
         });
-        
-        JButton manageExpensesBtn = new JButton("Manage Expenses");
+
+        manageExpensesBtn = new JButton("Manage Expenses");
         manageExpensesBtn.setPreferredSize(new Dimension(200, 50));
+        manageExpensesBtn.setEnabled(false);
         manageExpensesBtn.addActionListener(e -> {
-            ExpenseManagementDialog dialog = new ExpenseManagementDialog(this, dao);
+            ExpenseManagementDialog dialog = new ExpenseManagementDialog(this, dao, searchIndex);
             dialog.setVisible(true);
         });
-        
+
         JPanel buttonPanel = new JPanel(new GridLayout(2, 1, 10, 10));
         buttonPanel.add(manageCategoriesBtn);
         buttonPanel.add(manageExpensesBtn);
-        
-        mainPanel.add(titleLabel, new GridBagConstraints(0, 0, 1, 1, 1, 0.3, 
+
+        // Start-up progress, hidden once the database is ready
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        statusLabel = new JLabel("Connecting to the database...", SwingConstants.CENTER);
+        JPanel statusPanel = new JPanel(new BorderLayout(0, 5));
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(15, 0, 0, 0));
+        statusPanel.add(progressBar, BorderLayout.NORTH);
+        statusPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        mainPanel.add(titleLabel, new GridBagConstraints(0, 0, 1, 1, 1, 0.3,
             GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets(0, 0, 0, 0), 0, 0));
-            
-        mainPanel.add(buttonPanel, new GridBagConstraints(0, 1, 1, 1, 1, 0.7, 
+
+        mainPanel.add(buttonPanel, new GridBagConstraints(0, 1, 1, 1, 1, 0.7,
             GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets(0, 0, 0, 0), 0, 0));
-        
+
+        mainPanel.add(statusPanel, new GridBagConstraints(0, 2, 1, 1, 1, 0,
+            GridBagConstraints.CENTER, GridBagConstraints.HORIZONTAL, new Insets(0, 0, 0, 0), 0, 0));
+
         add(mainPanel);
     }
-    
-    public static void main(String[] args) {
-        try (var connection = DatabaseConnection.getConnection()) {
-            System.out.println("Successfully connected to the database.");
-            
-            // Initialize DAO
-            ExpensetrackerAppDAO dao = new ExpensetrackerAppDAO();
-            
-            // Set system look and feel
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            StartupTimer.mark("first paint");
+        }
+    }
+
+    /**
+     * Warms the connection pool and runs the schema check on a background
+     * thread, then enables the buttons. Call once, from the EDT, after the
+     * frame is visible.
+     */
+    public void startBackgroundInit() {
+        CompletableFuture<ExpensetrackerAppDAO> init = CompletableFuture.supplyAsync(() -> {
             try {
-                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+                DatabaseConnection.getPool().fillToMinimum();
             } catch (Exception e) {
+                throw new RuntimeException("Error connecting to the database: " + e.getMessage(), e);
+            }
+            StartupTimer.mark("connection pool ready");
+            SwingUtilities.invokeLater(() -> statusLabel.setText("Checking the database schema..."));
+
+            ExpensetrackerAppDAO created = new ExpensetrackerAppDAO();
+            StartupTimer.mark("schema ready");
+            return created;
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "startup-init");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        SwingAsync.onEdt(init, this::onDaoReady, this::onInitFailed);
+    }
+
+    private void onDaoReady(ExpensetrackerAppDAO readyDao) {
+        dao = new AsyncExpensetrackerAppDAO(readyDao);
+        // Indexing reads the whole table, so the buttons do not wait for it
+        searchIndex = CompletableFuture.supplyAsync(() -> {
+            try {
+                return ExpenseSearchIndex.attach(readyDao);
+            } catch (SQLException e) {
                 e.printStackTrace();
+                throw new RuntimeException("Error building the search index: " + e.getMessage(), e);
             }
-            
-            // Launch the application
-            SwingUtilities.invokeLater(() -> {
-                MainFrame frame = new MainFrame(dao);
-                frame.setVisible(true);
-            });
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, 
-                "Error connecting to the database: " + e.getMessage(),
-                "Database Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "search-index-load");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        progressBar.setVisible(false);
+        statusLabel.setText(" ");
+        manageCategoriesBtn.setEnabled(true);
+        manageExpensesBtn.setEnabled(true);
+        StartupTimer.mark("ready for input");
+    }
+
+    private void onInitFailed(Throwable error) {
+        error.printStackTrace();
+        progressBar.setVisible(false);
+        statusLabel.setText("Database unavailable");
+        JOptionPane.showMessageDialog(this,
+            error.getMessage(),
+            "Database Error",
+            JOptionPane.ERROR_MESSAGE);
+    }
+
+    public static void main(String[] args) {
+        Main.main(args);
     }
 }
@@ -0,0 +1,76 @@
+package com.expense_tracker.gui;
+
+import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Helpers for delivering background results back onto the Event Dispatch Thread.
+ */
+final class SwingAsync {
+
+    /**
+     * Runs {@code onSuccess} or {@code onFailure} on the EDT once {@code future}
+     * completes. Cancelled futures are ignored.
+     */
+    static <T> void onEdt(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                          Consumer<Throwable> onFailure) {
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (error == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onFailure.accept(unwrap(error));
+                }
+            });
+        });
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Tracks the most recent request of one kind, e.g. "load the selected row".
+     * Starting a new request cancels the previous one, and only the latest
+     * request's result is delivered to the UI. Must be used from the EDT.
+     */
+    static final class LatestRequest<T> {
+        private CompletableFuture<T> current;
+
+        void start(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+            cancel();
+            current = future;
+            onEdt(future, result -> {
+                if (current == future) {
+                    current = null;
+                    onSuccess.accept(result);
+                }
+            }, error -> {
+                if (current == future) {
+                    current = null;
+                    onFailure.accept(error);
+                }
+            });
+        }
+
+        void cancel() {
+            if (current != null) {
+                current.cancel(false);
+                current = null;
+            }
+        }
+    }
+
+    private SwingAsync() {}
+}
@@ -0,0 +1,151 @@
+package com.expense_tracker.importer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Parses field values straight from the bytes of a statement, so only the
+ * fields that end up as strings on an expense are ever decoded.
+ */
+final class ByteFields {
+
+    /**
+     * Parses an amount with a decimal point, such as {@code 1,234.5},
+     * {@code -12.30}, {@code (7.00)} or {@code $ 3}, into cents.
+     *
+     * @see #parseCents(byte[], int, int, byte)
+     */
+    static long parseCents(byte[] bytes, int start, int end) {
+        return parseCents(bytes, start, end, (byte) '.');
+    }
+
+    /**
+     * Parses an amount into cents. {@code decimalMark} is {@code '.'} or
+     * {@code ','}; the other one may group thousands, but only where exactly
+     * three digits follow it, so {@code 12,30} is rejected rather than read as
+     * 1230 with a decimal point. Currency symbols and spaces are ignored;
+     * negative and parenthesised amounts come back negative.
+     *
+     * @throws NumberFormatException if there are no digits, letters, a
+     *                               misplaced separator, or more than two
+     *                               decimals
+     */
+    static long parseCents(byte[] bytes, int start, int end, byte decimalMark) {
+        byte groupSeparator = decimalMark == ',' ? (byte) '.' : (byte) ',';
+        boolean negative = false;
+        boolean digits = false;
+        int decimals = -1;
+        long units = 0;
+        for (int i = start; i < end; i++) {
+            int c = bytes[i];
+            if (c >= '0' && c <= '9') {
+                if (decimals >= 0 && ++decimals > 2) {
+                    throw new NumberFormatException("More than two decimals in " + text(bytes, start, end));
+                }
+                units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                digits = true;
+            } else if (c == decimalMark && decimals < 0) {
+                decimals = 0;
+            } else if ((c == '-' || c == '(') && !digits) {
+                negative = true;
+            } else if (c == groupSeparator && digits && decimals < 0) {
+                if (!isDigitGroup(bytes, i + 1, end)) {
+                    throw new NumberFormatException("Ambiguous amount: " + text(bytes, start, end));
+                }
+            } else if (c != ' ' && c != '\t' && c != '+' && c != ')' && c != '$' && c >= 0) {
+                // c < 0 are the bytes of multi-byte currency symbols such as € or £
+                throw new NumberFormatException("Not an amount: " + text(bytes, start, end));
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not an amount: " + text(bytes, start, end));
+        }
+        long cents = decimals <= 0 ? Math.multiplyExact(units, 100) : decimals == 1 ? units * 10 : units;
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd}, {@code yyyy/MM/dd} or {@code yyyyMMdd}; the
+     * latter may be followed by a time as in OFX ({@code 20240131120000[0:GMT]}).
+     *
+     * @throws DateTimeException if the bytes are not such a date
+     */
+    static LocalDate parseDate(byte[] bytes, int start, int end) {
+        start = trimStart(bytes, start, end);
+        end = trimEnd(bytes, start, end);
+        if (end - start >= 8 && allDigits(bytes, start, start + 8)) {
+            return LocalDate.of(number(bytes, start, start + 4), number(bytes, start + 4, start + 6),
+                number(bytes, start + 6, start + 8));
+        }
+        int firstSeparator = start + 4;
+        if (end - start >= 8 && allDigits(bytes, start, firstSeparator) && isDateSeparator(bytes[firstSeparator])) {
+            int secondSeparator = firstSeparator + 1;
+            while (secondSeparator < end && !isDateSeparator(bytes[secondSeparator])) {
+                secondSeparator++;
+            }
+            if (secondSeparator < end && secondSeparator - firstSeparator <= 3) {
+                int dayEnd = secondSeparator + 1;
+                while (dayEnd < end && dayEnd - secondSeparator <= 2 && bytes[dayEnd] >= '0' && bytes[dayEnd] <= '9') {
+                    dayEnd++;
+                }
+                return LocalDate.of(number(bytes, start, firstSeparator), number(bytes, firstSeparator + 1, secondSeparator),
+                    number(bytes, secondSeparator + 1, dayEnd));
+            }
+        }
+        throw new DateTimeException("Not a date: " + text(bytes, start, end));
+    }
+
+    /** Decodes the trimmed bytes as UTF-8. */
+    static String text(byte[] bytes, int start, int end) {
+        start = trimStart(bytes, start, end);
+        end = trimEnd(bytes, start, end);
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    static int trimStart(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] == ' ' || bytes[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    static int trimEnd(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] == ' ' || bytes[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    /** Whether exactly three digits start at {@code start}. */
+    private static boolean isDigitGroup(byte[] bytes, int start, int end) {
+        return start + 3 <= end && allDigits(bytes, start, start + 3)
+            && (start + 3 == end || bytes[start + 3] < '0' || bytes[start + 3] > '9');
+    }
+
+    private static boolean isDateSeparator(byte c) {
+        return c == '-' || c == '/' || c == '.';
+    }
+
+    private static boolean allDigits(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(byte[] bytes, int start, int end) {
+        if (start >= end || !allDigits(bytes, start, end)) {
+            throw new DateTimeException("Not a number: " + text(bytes, start, end));
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private ByteFields() {}
+}
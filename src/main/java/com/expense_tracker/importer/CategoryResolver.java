@@ -0,0 +1,93 @@
+package com.expense_tracker.importer;
+
+import com.expense_tracker.model.Category;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Maps category names, as raw bytes, to category ids without decoding them.
+ * Matching ignores ASCII case and surrounding spaces, like the MySQL
+ * collation; unknown or empty names map to the default category.
+ */
+final class CategoryResolver {
+    private final byte[][] keys;
+    private final int[] ids;
+    private final int mask;
+    private final int defaultId;
+
+    private CategoryResolver(List<Category> categories, int defaultId) {
+        int capacity = Integer.highestOneBit(Math.max(categories.size(), 1) * 4);
+        this.keys = new byte[capacity][];
+        this.ids = new int[capacity];
+        this.mask = capacity - 1;
+        this.defaultId = defaultId;
+        for (Category category : categories) {
+            byte[] key = category.getName().trim().getBytes(StandardCharsets.UTF_8);
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            ids[slot] = category.getId();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code defaultCategory} is not one of {@code categories}
+     */
+    static CategoryResolver of(List<Category> categories, String defaultCategory) {
+        for (Category category : categories) {
+            if (category.getName().equalsIgnoreCase(defaultCategory)) {
+                return new CategoryResolver(categories, category.getId());
+            }
+        }
+        throw new IllegalArgumentException("Default category '" + defaultCategory + "' does not exist");
+    }
+
+    int defaultId() {
+        return defaultId;
+    }
+
+    /** The id of the category named by {@code bytes[start, end)}, or the default. */
+    int resolve(byte[] bytes, int start, int end) {
+        start = ByteFields.trimStart(bytes, start, end);
+        end = ByteFields.trimEnd(bytes, start, end);
+        if (start == end) {
+            return defaultId;
+        }
+        int slot = hash(bytes, start, end) & mask;
+        byte[] key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, bytes, start, end)) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultId;
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + lower(bytes[i]);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(byte[] key, byte[] bytes, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (lower(key[i]) != lower(bytes[start + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lower(byte c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+}
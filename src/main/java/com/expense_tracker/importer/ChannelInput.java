@@ -0,0 +1,85 @@
+package com.expense_tracker.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Byte-at-a-time reading of a file channel through one reusable buffer,
+ * keeping track of the file offset so parsers can checkpoint record ends.
+ */
+final class ChannelInput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private long bufferOffset;
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    ChannelInput(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Continues reading at {@code offset}. */
+    void seek(long offset) throws IOException {
+        channel.position(offset);
+        bufferOffset = offset;
+        position = 0;
+        limit = 0;
+        eof = false;
+    }
+
+    /** The next byte (0-255), or -1 at the end of the file. */
+    int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    /** Like {@link #read()} without consuming the byte. */
+    int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    /** File offset of the next byte {@link #read()} returns. */
+    long offset() {
+        return bufferOffset + position;
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        bufferOffset += limit;
+        position = 0;
+        limit = 0;
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,248 @@
+package com.expense_tracker.importer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses CSV statements with a header row naming the columns.
+ *
+ * Required are a date column ({@code date}, {@code posted}, ...), a name
+ * column ({@code name}, {@code payee}, {@code merchant} or
+ * {@code description}) and an amount; {@code category} and a memo
+ * ({@code memo}, {@code notes}) are optional. Fields are separated by commas,
+ * or semicolons if the header has no commas, and may be quoted, including
+ * line breaks. Amounts in semicolon-separated files use a decimal comma. Field bytes are unescaped into one reusable buffer; only the
+ * name and memo become strings.
+ *
+ * A signed {@code amount} (or {@code value}) column follows the usual bank
+ * and card export convention: spending is negative and positive rows are
+ * credits, which are skipped like OFX credits. Set
+ * {@code expense.import.csvExpensesPositive} for exports that show spending
+ * as positive instead. Only a {@code debit} column, which lists spending
+ * alone, is read without its sign; rows with an empty debit are credits
+ * booked in another column.
+ */
+final class CsvRecordParser implements RecordParser {
+    private static final List<String> DATE_HEADERS = List.of("date", "posted", "posted date", "transaction date",
+        "booking date");
+    private static final List<String> NAME_HEADERS = List.of("name", "payee", "merchant", "description");
+    private static final List<String> SIGNED_AMOUNT_HEADERS = List.of("amount", "value");
+    private static final List<String> DEBIT_HEADERS = List.of("debit");
+    private static final List<String> MEMO_HEADERS = List.of("memo", "notes", "description");
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final boolean EXPENSES_POSITIVE = Boolean.getBoolean("expense.import.csvExpensesPositive");
+
+    private final ChannelInput input;
+    private final CategoryResolver categories;
+    private byte delimiter = ',';
+    // Semicolon-separated exports come from locales that write 1.234,56
+    private byte decimalMark = '.';
+    private byte[] data = new byte[4096];
+    private int length;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount;
+    private int dateColumn;
+    private int nameColumn;
+    private int amountColumn;
+    // The amount column is a debit column holding unsigned spending
+    private boolean debitColumn;
+    private int categoryColumn;
+    private int memoColumn;
+    private int requiredColumns;
+
+    CsvRecordParser(ChannelInput input, CategoryResolver categories) {
+        this.input = input;
+        this.categories = categories;
+    }
+
+    @Override
+    public void start(long offset) throws IOException {
+        input.seek(skipByteOrderMark());
+        if (!readRecord()) {
+            throw new IOException("CSV file is empty");
+        }
+        if (fieldCount == 1 && indexOf((byte) ';') >= 0) {
+            delimiter = ';';
+            decimalMark = ',';
+            input.seek(skipByteOrderMark());
+            readRecord();
+        }
+        mapHeader();
+        if (offset > input.offset()) {
+            input.seek(offset);
+        }
+    }
+
+    @Override
+    public boolean next(ImportRecord record) throws IOException {
+        do {
+            if (!readRecord()) {
+                return false;
+            }
+        } while (fieldCount == 1 && length == 0);
+
+        record.clear();
+        record.endOffset = input.offset();
+        if (fieldCount < requiredColumns) {
+            record.skipReason = "expected " + requiredColumns + " columns, found " + fieldCount;
+            return true;
+        }
+        int amountStart = ByteFields.trimStart(data, starts[amountColumn], ends[amountColumn]);
+        int amountEnd = ByteFields.trimEnd(data, amountStart, ends[amountColumn]);
+        if (debitColumn && amountStart == amountEnd) {
+            record.skipReason = ImportRecord.CREDIT;
+            return true;
+        }
+        long cents;
+        try {
+            record.date = ByteFields.parseDate(data, starts[dateColumn], ends[dateColumn]);
+            cents = ByteFields.parseCents(data, amountStart, amountEnd, decimalMark);
+        } catch (DateTimeException | NumberFormatException | ArithmeticException e) {
+            record.skipReason = e.getMessage();
+            return true;
+        }
+        if (cents == 0) {
+            record.skipReason = "zero amount";
+            return true;
+        }
+        if (debitColumn) {
+            cents = Math.abs(cents);
+        } else if (!EXPENSES_POSITIVE) {
+            cents = -cents;
+        }
+        if (cents < 0) {
+            record.skipReason = ImportRecord.CREDIT;
+            return true;
+        }
+        record.amountCents = cents;
+        record.categoryId = categoryColumn >= 0
+            ? categories.resolve(data, starts[categoryColumn], ends[categoryColumn])
+            : categories.defaultId();
+        String name = ByteFields.text(data, starts[nameColumn], ends[nameColumn]);
+        record.name = name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+        if (memoColumn >= 0 && starts[memoColumn] < ends[memoColumn]) {
+            record.description = ByteFields.text(data, starts[memoColumn], ends[memoColumn]);
+        }
+        return true;
+    }
+
+    private long skipByteOrderMark() throws IOException {
+        input.seek(0);
+        if (input.read() == 0xEF && input.read() == 0xBB && input.read() == 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    private void mapHeader() throws IOException {
+        List<String> headers = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            headers.add(ByteFields.text(data, starts[i], ends[i]).toLowerCase(Locale.ROOT));
+        }
+        dateColumn = firstColumn(headers, DATE_HEADERS, -1);
+        nameColumn = firstColumn(headers, NAME_HEADERS, -1);
+        amountColumn = firstColumn(headers, SIGNED_AMOUNT_HEADERS, -1);
+        debitColumn = amountColumn < 0;
+        if (debitColumn) {
+            amountColumn = firstColumn(headers, DEBIT_HEADERS, -1);
+        }
+        categoryColumn = headers.indexOf("category");
+        memoColumn = firstColumn(headers, MEMO_HEADERS, nameColumn);
+        if (dateColumn < 0 || nameColumn < 0 || amountColumn < 0) {
+            throw new IOException("CSV header needs date, name (or payee/description) and amount (or debit) "
+                + "columns, found " + headers);
+        }
+        requiredColumns = 1 + Math.max(Math.max(dateColumn, nameColumn), amountColumn);
+    }
+
+    private static int firstColumn(List<String> headers, List<String> candidates, int excluded) {
+        for (String candidate : candidates) {
+            int column = headers.indexOf(candidate);
+            if (column >= 0 && column != excluded) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads one record into {@link #data}, with field boundaries in
+     * {@link #starts}/{@link #ends}.
+     *
+     * @return {@code false} at the end of the file
+     */
+    private boolean readRecord() throws IOException {
+        length = 0;
+        fieldCount = 0;
+        int c = input.read();
+        if (c < 0) {
+            return false;
+        }
+        int fieldStart = 0;
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field before offset " + input.offset());
+                }
+                if (c == '"') {
+                    if (input.peek() == '"') {
+                        append(input.read());
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                endField(fieldStart);
+                fieldStart = length;
+            } else if (c == '\n' || c < 0) {
+                endField(fieldStart);
+                return true;
+            } else if (c == '\r') {
+                if (input.peek() == '\n') {
+                    input.read();
+                }
+                endField(fieldStart);
+                return true;
+            } else {
+                append(c);
+            }
+            c = input.read();
+        }
+    }
+
+    private void append(int c) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, length * 2);
+        }
+        data[length++] = (byte) c;
+    }
+
+    private void endField(int fieldStart) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = fieldStart;
+        ends[fieldCount] = length;
+        fieldCount++;
+    }
+
+    private int indexOf(byte b) {
+        for (int i = 0; i < length; i++) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,59 @@
+package com.expense_tracker.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * How far an import got, kept next to the statement as
+ * {@code <file>.checkpoint}. {@code offset} is the end of the last record
+ * whose expense is committed; the checkpoint is replaced atomically so a
+ * crash leaves either the old or the new one.
+ */
+record ImportCheckpoint(long offset, long imported, long skipped, long fileSize, boolean completed) {
+
+    static Path fileFor(Path statement) {
+        return statement.resolveSibling(statement.getFileName() + ".checkpoint");
+    }
+
+    /** The saved checkpoint of {@code statement}, or {@code null} if there is none. */
+    static ImportCheckpoint load(Path statement) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(fileFor(statement))) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            return new ImportCheckpoint(
+                Long.parseLong(properties.getProperty("offset")),
+                Long.parseLong(properties.getProperty("imported")),
+                Long.parseLong(properties.getProperty("skipped")),
+                Long.parseLong(properties.getProperty("fileSize")),
+                Boolean.parseBoolean(properties.getProperty("completed"))
+            );
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt import checkpoint " + fileFor(statement), e);
+        }
+    }
+
+    void save(Path statement) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("skipped", Long.toString(skipped));
+        properties.setProperty("fileSize", Long.toString(fileSize));
+        properties.setProperty("completed", Boolean.toString(completed));
+        Path target = fileFor(statement);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Import progress of " + statement.getFileName());
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
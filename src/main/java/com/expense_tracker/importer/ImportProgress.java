@@ -0,0 +1,13 @@
+package com.expense_tracker.importer;
+
+/**
+ * Live progress of an import. Counts include rows imported by earlier runs
+ * that this run resumed; {@code rowsPerSecond} is the rate since the
+ * previous report.
+ */
+public record ImportProgress(long imported, long skipped, long bytesRead, long totalBytes, double rowsPerSecond) {
+
+    public double percentDone() {
+        return totalBytes == 0 ? 100.0 : 100.0 * bytesRead / totalBytes;
+    }
+}
@@ -0,0 +1,31 @@
+package com.expense_tracker.importer;
+
+import java.time.LocalDate;
+
+/**
+ * One parsed statement row, reused by the parsers for every record.
+ * {@code skipReason} is set instead of the fields when the row is not an
+ * expense or could not be parsed.
+ */
+final class ImportRecord {
+    /** Skip reason of credits, which are expected in statements and not logged. */
+    static final String CREDIT = "credit";
+
+    String name;
+    String description;
+    int categoryId;
+    long amountCents;
+    LocalDate date;
+    String skipReason;
+    /** File offset just past this record; resuming here continues with the next one. */
+    long endOffset;
+
+    void clear() {
+        name = null;
+        description = null;
+        categoryId = 0;
+        amountCents = 0;
+        date = null;
+        skipReason = null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.expense_tracker.importer;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one import run. {@code resumedAt} is the number of rows already
+ * imported by earlier, interrupted runs.
+ */
+public record ImportResult(long imported, long skipped, long resumedAt, Duration elapsed) {
+
+    /** Rows imported by this run per second. */
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : (imported - resumedAt) / seconds;
+    }
+}
@@ -0,0 +1,146 @@
+package com.expense_tracker.importer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.Arrays;
+
+/**
+ * Parses the {@code <STMTTRN>} transactions of OFX statements, both the SGML
+ * (1.x) and XML (2.x) flavours, by scanning tags in the byte stream.
+ *
+ * Debits (negative {@code TRNAMT}) become expenses in the default category,
+ * named after {@code NAME} (or {@code MEMO} if there is no name); credits are
+ * skipped. Resuming is possible after every {@code </STMTTRN>}.
+ */
+final class OfxRecordParser implements RecordParser {
+    private static final int MAX_TAG_LENGTH = 32;
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final ChannelInput input;
+    private final CategoryResolver categories;
+    private final byte[] tag = new byte[MAX_TAG_LENGTH];
+    private int tagLength;
+    private byte[] value = new byte[256];
+    private int valueLength;
+
+    OfxRecordParser(ChannelInput input, CategoryResolver categories) {
+        this.input = input;
+        this.categories = categories;
+    }
+
+    @Override
+    public void start(long offset) throws IOException {
+        input.seek(offset);
+    }
+
+    @Override
+    public boolean next(ImportRecord record) throws IOException {
+        boolean inTransaction = false;
+        boolean amountSeen = false;
+        String memo = null;
+        int c;
+        while ((c = input.read()) >= 0) {
+            if (c != '<') {
+                continue;
+            }
+            readTag();
+            if (isTag("STMTTRN")) {
+                inTransaction = true;
+                amountSeen = false;
+                memo = null;
+                record.clear();
+            } else if (!inTransaction) {
+                continue;
+            } else if (isTag("/STMTTRN")) {
+                record.endOffset = input.offset();
+                finish(record, amountSeen, memo);
+                return true;
+            } else if (isTag("DTPOSTED")) {
+                readValue();
+                try {
+                    record.date = ByteFields.parseDate(value, 0, valueLength);
+                } catch (DateTimeException e) {
+                    record.skipReason = e.getMessage();
+                }
+            } else if (isTag("TRNAMT")) {
+                readValue();
+                try {
+                    record.amountCents = ByteFields.parseCents(value, 0, valueLength);
+                    amountSeen = true;
+                } catch (NumberFormatException | ArithmeticException e) {
+                    record.skipReason = e.getMessage();
+                }
+            } else if (isTag("NAME")) {
+                readValue();
+                record.name = decodeEntities(ByteFields.text(value, 0, valueLength));
+            } else if (isTag("MEMO")) {
+                readValue();
+                memo = decodeEntities(ByteFields.text(value, 0, valueLength));
+            }
+        }
+        return false;
+    }
+
+    private void finish(ImportRecord record, boolean amountSeen, String memo) {
+        if (record.skipReason != null) {
+            return;
+        }
+        if (record.date == null || !amountSeen) {
+            record.skipReason = "transaction without DTPOSTED or TRNAMT";
+            return;
+        }
+        if (record.amountCents >= 0) {
+            record.skipReason = ImportRecord.CREDIT;
+            return;
+        }
+        record.amountCents = -record.amountCents;
+        record.categoryId = categories.defaultId();
+        String name = record.name != null && !record.name.isEmpty() ? record.name : memo != null ? memo : "";
+        record.name = name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+        record.description = memo != null && !memo.equals(record.name) ? memo : null;
+    }
+
+    /** Reads the tag name after a {@code <}, upper-cased; overlong names are cut off. */
+    private void readTag() throws IOException {
+        tagLength = 0;
+        int c;
+        while ((c = input.read()) >= 0 && c != '>') {
+            if (tagLength < MAX_TAG_LENGTH) {
+                tag[tagLength++] = (byte) (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c);
+            }
+        }
+    }
+
+    private boolean isTag(String name) {
+        if (name.length() != tagLength) {
+            return false;
+        }
+        for (int i = 0; i < tagLength; i++) {
+            if (tag[i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Reads an element value, which ends at the next tag or line break. */
+    private void readValue() throws IOException {
+        valueLength = 0;
+        int c;
+        while ((c = input.peek()) >= 0 && c != '<' && c != '\n' && c != '\r') {
+            input.read();
+            if (valueLength == value.length) {
+                value = Arrays.copyOf(value, valueLength * 2);
+            }
+            value[valueLength++] = (byte) c;
+        }
+    }
+
+    private static String decodeEntities(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+            .replace("&apos;", "'").replace("&amp;", "&");
+    }
+}
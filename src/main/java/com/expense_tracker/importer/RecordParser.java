@@ -0,0 +1,21 @@
+package com.expense_tracker.importer;
+
+import java.io.IOException;
+
+/**
+ * Reads statement records one at a time from a {@link ChannelInput}.
+ */
+interface RecordParser {
+    /**
+     * Prepares to read records starting at {@code offset}, a record boundary
+     * previously reported in {@link ImportRecord#endOffset}, or 0.
+     */
+    void start(long offset) throws IOException;
+
+    /**
+     * Reads the next record into {@code record}.
+     *
+     * @return {@code false} at the end of the file
+     */
+    boolean next(ImportRecord record) throws IOException;
+}
@@ -0,0 +1,259 @@
+package com.expense_tracker.importer;
+
+import com.expense_tracker.dao.ExpenseWriteBehindQueue;
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.dedup.DuplicateDetector;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.model.Money;
+import com.expense_tracker.util.DatabaseConnection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Imports CSV and OFX bank statements as expenses.
+ *
+ * The file is streamed through a single NIO buffer and parsed at the byte
+ * level, so memory use does not grow with the file. Rows are handed to an
+ * {@link ExpenseWriteBehindQueue}, which inserts them in large batches while
+ * parsing continues. Progress is checkpointed next to the file (see
+ * {@link ImportCheckpoint}) about once a second; importing the same file
+ * again after a crash or failure resumes after the last checkpointed row.
+ * Rows committed after the last checkpoint are imported again on resume,
+ * unless a {@link DuplicateDetector} is given: rows it already knows, from
+ * earlier imports of overlapping statements, are skipped and logged.
+ * Identical rows within one file are all imported unless the same number are
+ * already stored. On resume the rows are counted from the checkpoint, so an
+ * identical row before it can hide one after it.
+ */
+public class StatementImporter {
+    private static final Logger LOG = LogManager.getLogger(StatementImporter.class);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_LOGGED_SKIPS = 20;
+
+    public enum Format {
+        CSV, OFX;
+
+        /** OFX for {@code .ofx} and {@code .qfx} files, CSV otherwise. */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".ofx") || name.endsWith(".qfx") ? OFX : CSV;
+        }
+    }
+
+    private final ExpensetrackerAppDAO dao;
+    private final String defaultCategory;
+    private final DuplicateDetector duplicates;
+
+    /**
+     * @param defaultCategory category for rows without a known category, and for all OFX rows
+     * @param duplicates      skips rows that are already stored; {@code null} to import every row
+     */
+    public StatementImporter(ExpensetrackerAppDAO dao, String defaultCategory, DuplicateDetector duplicates) {
+        this.dao = dao;
+        this.defaultCategory = defaultCategory;
+        this.duplicates = duplicates;
+    }
+
+    public StatementImporter(ExpensetrackerAppDAO dao, String defaultCategory) {
+        this(dao, defaultCategory, null);
+    }
+
+    public StatementImporter(ExpensetrackerAppDAO dao) {
+        this(dao, "Other");
+    }
+
+    public ImportResult importFile(Path file) throws IOException, SQLException, InterruptedException {
+        return importFile(file, Format.of(file), StatementImporter::logProgress);
+    }
+
+    /**
+     * Imports {@code file}, or the rest of it if an earlier import was
+     * interrupted, reporting progress to {@code progress} about once a second.
+     *
+     * @throws SQLException if a batch could not be inserted; the import can
+     *                      be resumed by calling this method again
+     */
+    public ImportResult importFile(Path file, Format format, Consumer<ImportProgress> progress)
+            throws IOException, SQLException, InterruptedException {
+        long start = System.nanoTime();
+        CategoryResolver categories = CategoryResolver.of(dao.getAllCategories(), defaultCategory);
+
+        try (ChannelInput input = new ChannelInput(FileChannel.open(file, StandardOpenOption.READ))) {
+            long fileSize = input.size();
+            ImportCheckpoint checkpoint = ImportCheckpoint.load(file);
+            if (checkpoint != null && checkpoint.fileSize() != fileSize) {
+                LOG.warn("{} changed size since the last import; importing it from the start", file);
+                checkpoint = null;
+            }
+            if (checkpoint != null && checkpoint.completed()) {
+                LOG.info("{} was already imported; delete {} to import it again", file, ImportCheckpoint.fileFor(file));
+                return new ImportResult(checkpoint.imported(), checkpoint.skipped(), checkpoint.imported(),
+                    Duration.ofNanos(System.nanoTime() - start));
+            }
+            long resumeOffset = checkpoint == null ? 0 : checkpoint.offset();
+            long resumedAt = checkpoint == null ? 0 : checkpoint.imported();
+            long skipped = checkpoint == null ? 0 : checkpoint.skipped();
+            if (checkpoint != null) {
+                LOG.info("Resuming import of {} after {} rows", file, resumedAt);
+            }
+
+            RecordParser parser = format == Format.OFX
+                ? new OfxRecordParser(input, categories)
+                : new CsvRecordParser(input, categories);
+            parser.start(resumeOffset);
+
+            Commits commits = new Commits(resumeOffset, resumedAt, skipped);
+            ImportRecord record = new ImportRecord();
+            long lastReportAt = System.nanoTime();
+            long lastReportRows = resumedAt;
+            int loggedSkips = 0;
+            long duplicateRows = 0;
+            DuplicateDetector.FileOccurrences occurrences = duplicates == null ? null
+                : duplicates.newFileOccurrences();
+            try (ExpenseWriteBehindQueue queue = new ExpenseWriteBehindQueue(dao)) {
+                while (commits.failure.get() == null && parser.next(record)) {
+                    if (record.skipReason != null) {
+                        skipped++;
+                        if (record.skipReason != ImportRecord.CREDIT && loggedSkips++ < MAX_LOGGED_SKIPS) {
+                            LOG.warn("Skipping record ending at byte {} of {}: {}", record.endOffset, file,
+                                record.skipReason);
+                        }
+                    } else {
+                        Expense expense = new Expense(record.name, record.categoryId, record.amountCents,
+                            record.description, record.date);
+                        if (duplicates != null && !duplicates.isNewOccurrence(expense, occurrences)) {
+                            skipped++;
+                            if (duplicateRows++ < MAX_LOGGED_SKIPS) {
+                                LOG.info("Skipping record ending at byte {} of {}, already stored: {} {} {}",
+                                    record.endOffset, file, record.date, Money.format(record.amountCents),
+                                    record.name);
+                            }
+                        } else {
+                            commits.track(queue.submit(expense), record.endOffset, skipped);
+                        }
+                    }
+
+                    long now = System.nanoTime();
+                    if (now - lastReportAt >= REPORT_INTERVAL_NANOS) {
+                        Commits.Position committed = commits.committed.get();
+                        long imported = committed.rows();
+                        new ImportCheckpoint(committed.offset(), imported, committed.skipped(), fileSize, false)
+                            .save(file);
+                        progress.accept(new ImportProgress(imported, skipped, record.endOffset, fileSize,
+                            (imported - lastReportRows) * 1e9 / (now - lastReportAt)));
+                        lastReportAt = now;
+                        lastReportRows = imported;
+                    }
+                }
+            }
+
+            // The queue is drained, so the commit counters are final
+            Commits.Position committed = commits.committed.get();
+            long imported = committed.rows();
+            Throwable failure = commits.failure.get();
+            new ImportCheckpoint(committed.offset(), imported, failure == null ? skipped : committed.skipped(),
+                fileSize, failure == null).save(file);
+            if (failure != null) {
+                throw new SQLException("Import of " + file + " stopped after " + imported
+                    + " rows; import it again to resume", failure);
+            }
+            long now = System.nanoTime();
+            progress.accept(new ImportProgress(imported, skipped, fileSize, fileSize,
+                (imported - lastReportRows) * 1e9 / Math.max(1, now - lastReportAt)));
+            if (duplicateRows > 0) {
+                LOG.info("Skipped {} rows of {} that were already stored", duplicateRows, file);
+            }
+            if (loggedSkips > MAX_LOGGED_SKIPS) {
+                LOG.warn("Skipped {} records of {} in total", skipped, file);
+            }
+            return new ImportResult(imported, skipped, resumedAt, Duration.ofNanos(now - start));
+        }
+    }
+
+    private static void logProgress(ImportProgress progress) {
+        LOG.info(String.format("Imported %,d rows (%.1f%%, %,.0f rows/s), skipped %,d",
+            progress.imported(), progress.percentDone(), progress.rowsPerSecond(), progress.skipped()));
+    }
+
+    /**
+     * The committed prefix of the import: the end offset of the last committed
+     * record, the rows committed and the records skipped up to that offset,
+     * which is what a checkpoint may claim. Expenses commit in submission
+     * order, so the position only moves forward. At the first failure every
+     * expense still queued is cancelled; were they committed, the checkpoint
+     * could not move past the failed rows and resuming would import them twice.
+     */
+    private static final class Commits {
+        private final AtomicReference<Position> committed;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Submitted and not yet committed, oldest first
+        private final ConcurrentLinkedDeque<CompletableFuture<Integer>> outstanding = new ConcurrentLinkedDeque<>();
+
+        private Commits(long offset, long rows, long skipped) {
+            this.committed = new AtomicReference<>(new Position(offset, rows, skipped));
+        }
+
+        /**
+         * Tracks the expense of the record ending at {@code endOffset};
+         * {@code skippedBefore} records before it were skipped.
+         */
+        private void track(CompletableFuture<Integer> future, long endOffset, long skippedBefore) {
+            outstanding.addLast(future);
+            CompletableFuture<Integer> oldest;
+            while ((oldest = outstanding.peekFirst()) != null && oldest.isDone()) {
+                outstanding.remove(oldest);
+            }
+            future.whenComplete((id, error) -> {
+                if (error instanceof CancellationException) {
+                    return;
+                }
+                if (error != null) {
+                    if (failure.compareAndSet(null, error)) {
+                        outstanding.forEach(pending -> pending.cancel(false));
+                    }
+                } else if (failure.get() == null) {
+                    committed.updateAndGet(position -> new Position(Math.max(position.offset, endOffset),
+                        position.rows + 1, Math.max(position.skipped, skippedBefore)));
+                }
+            });
+        }
+
+        private record Position(long offset, long rows, long skipped) {
+        }
+    }
+
+    /**
+     * Imports the statement given as the first argument; the optional second
+     * argument names the default category.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: StatementImporter <statement.csv|statement.ofx> [default category]");
+            System.exit(2);
+        }
+        try {
+            ExpensetrackerAppDAO dao = new ExpensetrackerAppDAO();
+            StatementImporter importer = new StatementImporter(dao, args.length > 1 ? args[1] : "Other",
+                DuplicateDetector.load(dao));
+            ImportResult result = importer.importFile(Path.of(args[0]));
+            System.out.printf("Imported %,d rows (%,d skipped) in %.1f s, %,.0f rows/s%n",
+                result.imported(), result.skipped(), result.elapsed().toMillis() / 1000.0, result.rowsPerSecond());
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.expense_tracker.metrics;
+
+import com.expense_tracker.util.ConnectionPool;
+import com.expense_tracker.util.StatementCache;
+
+import java.util.function.Supplier;
+
+/**
+ * Exposes whichever pool {@code DatabaseConnection} currently holds, so the
+ * bean stays valid when the pool is shut down and recreated.
+ */
+public class ConnectionPoolStats implements ConnectionPoolStatsMXBean {
+    private final Supplier<ConnectionPool> pool;
+
+    public ConnectionPoolStats(Supplier<ConnectionPool> pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        ConnectionPool current = pool.get();
+        return current == null ? 0 : current.getActiveCount();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        ConnectionPool current = pool.get();
+        return current == null ? 0 : current.getIdleCount();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        ConnectionPool current = pool.get();
+        return current == null ? 0 : current.getTotalCount();
+    }
+
+    @Override
+    public long getAcquisitions() {
+        return acquireTimes().count();
+    }
+
+    @Override
+    public long getWaitP50Micros() {
+        return Math.min(acquireTimes().percentile(0.50) / 1_000, getWaitMaxMicros());
+    }
+
+    @Override
+    public long getWaitP99Micros() {
+        return Math.min(acquireTimes().percentile(0.99) / 1_000, getWaitMaxMicros());
+    }
+
+    @Override
+    public long getWaitMaxMicros() {
+        ConnectionPool current = pool.get();
+        return current == null ? 0 : current.getAcquireTime().getMax() / 1_000;
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return StatementCache.stats().hits();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return StatementCache.stats().misses();
+    }
+
+    LatencyHistogram.Snapshot acquireTimes() {
+        ConnectionPool current = pool.get();
+        return (current == null ? new LatencyHistogram() : current.getAcquireTime()).snapshot();
+    }
+}
@@ -0,0 +1,26 @@
+package com.expense_tracker.metrics;
+
+/**
+ * JMX view of the connection pool. Wait times are how long callers of
+ * {@code DatabaseConnection.getConnection()} blocked for a connection, in
+ * microseconds since startup.
+ */
+public interface ConnectionPoolStatsMXBean {
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    long getAcquisitions();
+
+    long getWaitP50Micros();
+
+    long getWaitP99Micros();
+
+    long getWaitMaxMicros();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+}
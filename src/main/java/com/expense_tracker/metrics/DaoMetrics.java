@@ -0,0 +1,141 @@
+package com.expense_tracker.metrics;
+
+import com.expense_tracker.util.ConnectionPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registry of per-operation DAO statistics.
+ *
+ * Every operation is registered as an MXBean named
+ * {@code com.expense_tracker:type=DaoOperation,name=<operation>} the first
+ * time it runs, and the pool as {@code com.expense_tracker:type=ConnectionPool}.
+ * Every {@code expense.metrics.logIntervalSeconds} seconds (default 300, 0 to
+ * disable) the operations that ran in the interval are summarised in the log.
+ */
+public final class DaoMetrics {
+    private static final Logger LOG = LogManager.getLogger(DaoMetrics.class);
+    private static final String DOMAIN = "com.expense_tracker";
+    private static final long LOG_INTERVAL_SECONDS = Long.getLong("expense.metrics.logIntervalSeconds", 300);
+    private static final DaoMetrics INSTANCE = new DaoMetrics();
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final Map<String, Baseline> lastLogged = new HashMap<>();
+    private volatile ConnectionPoolStats poolStats;
+    private LatencyHistogram.Snapshot lastLoggedPoolWait;
+
+    public static DaoMetrics get() {
+        return INSTANCE;
+    }
+
+    private DaoMetrics() {
+        if (LOG_INTERVAL_SECONDS > 0) {
+            ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "dao-metrics-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.scheduleAtFixedRate(this::logSummary, LOG_INTERVAL_SECONDS, LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * The statistics of {@code name}, created and registered on first use.
+     */
+    public OperationStats operation(String name) {
+        OperationStats stats = operations.get(name);
+        return stats != null ? stats : operations.computeIfAbsent(name, this::register);
+    }
+
+    /**
+     * Publishes the pool returned by {@code pool}; call once.
+     */
+    public void registerPool(Supplier<ConnectionPool> pool) {
+        ConnectionPoolStats stats = new ConnectionPoolStats(pool);
+        poolStats = stats;
+        registerBean(stats, "type=ConnectionPool");
+    }
+
+    private OperationStats register(String name) {
+        OperationStats stats = new OperationStats(name);
+        registerBean(stats, "type=DaoOperation,name=" + ObjectName.quote(name));
+        return stats;
+    }
+
+    private static void registerBean(Object bean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(bean, objectName);
+        } catch (JMException e) {
+            LOG.warn("Could not register MBean {}", properties, e);
+        }
+    }
+
+    /**
+     * Logs calls, errors, rows and latency percentiles of the last interval.
+     */
+    synchronized void logSummary() {
+        try {
+            StringBuilder summary = new StringBuilder();
+            for (OperationStats stats : new TreeMap<>(operations).values()) {
+                Baseline now = Baseline.of(stats);
+                Baseline before = lastLogged.getOrDefault(stats.getName(), Baseline.EMPTY);
+                lastLogged.put(stats.getName(), now);
+                long calls = now.calls - before.calls;
+                if (calls == 0) {
+                    continue;
+                }
+                LatencyHistogram.Snapshot latency = before.latency == null ? now.latency : now.latency.minus(before.latency);
+                summary.append(String.format("%n  %-28s calls=%d errors=%d rows=%d p50=%s p99=%s max=%s",
+                    stats.getName(), calls, now.errors - before.errors, now.rows - before.rows,
+                    millis(latency.percentile(0.50)), millis(latency.percentile(0.99)), millis(latency.highest())));
+            }
+            ConnectionPoolStats pool = poolStats;
+            if (pool != null) {
+                LatencyHistogram.Snapshot wait = pool.acquireTimes();
+                LatencyHistogram.Snapshot interval = lastLoggedPoolWait == null || wait.count() < lastLoggedPoolWait.count()
+                    ? wait : wait.minus(lastLoggedPoolWait);
+                lastLoggedPoolWait = wait;
+                if (interval.count() > 0) {
+                    summary.append(String.format("%n  %-28s acquisitions=%d active=%d idle=%d wait p50=%s p99=%s max=%s",
+                        "connection pool", interval.count(), pool.getActiveConnections(), pool.getIdleConnections(),
+                        millis(interval.percentile(0.50)), millis(interval.percentile(0.99)), millis(interval.highest())));
+                }
+            }
+            if (summary.length() > 0) {
+                LOG.info("DAO activity in the last {} s:{}", LOG_INTERVAL_SECONDS, summary);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Could not log DAO metrics", e);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    private record Baseline(long calls, long errors, long rows, LatencyHistogram.Snapshot latency) {
+        static final Baseline EMPTY = new Baseline(0, 0, 0, null);
+
+        static Baseline of(OperationStats stats) {
+            return new Baseline(stats.getCalls(), stats.getErrors(), stats.getRows(), stats.getLatency().snapshot());
+        }
+    }
+}
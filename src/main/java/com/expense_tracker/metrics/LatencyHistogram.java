@@ -0,0 +1,125 @@
+package com.expense_tracker.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free log-linear histogram of durations in nanoseconds.
+ *
+ * Every power of two is split into 8 linear sub-buckets, so any recorded
+ * value is reported within 12.5% of its true value while the whole range
+ * of {@code long} fits in under 500 counters. Recording is one array
+ * increment plus a max update.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        max.accumulate(value);
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Copies the current counts. Counts recorded while copying may or may
+     * not be included.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (1L << exponent) | (sub << (exponent - SUB_BUCKET_BITS));
+    }
+
+    static long width(int bucket) {
+        return bucket < SUB_BUCKETS ? 1 : 1L << (bucket / SUB_BUCKETS - 1);
+    }
+
+    /**
+     * Point-in-time bucket counts. Subtracting an earlier snapshot gives the
+     * distribution of just the values recorded in between.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /** The values recorded since {@code earlier} was taken. */
+        public Snapshot minus(Snapshot earlier) {
+            long[] delta = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                delta[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot(delta);
+        }
+
+        /**
+         * Estimated value at {@code quantile} (0..1), in nanoseconds; 0 when empty.
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    // Middle of the bucket
+                    return lowerBound(i) + (width(i) - 1) / 2;
+                }
+            }
+            return highest();
+        }
+
+        /** Upper bound of the highest non-empty bucket; 0 when empty. */
+        public long highest() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return lowerBound(i) + width(i) - 1;
+                }
+            }
+            return 0;
+        }
+    }
+}
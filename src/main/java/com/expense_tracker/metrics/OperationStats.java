@@ -0,0 +1,70 @@
+package com.expense_tracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count, rows returned and latency distribution of one
+ * DAO operation. Safe to update from any number of threads.
+ */
+public class OperationStats implements OperationStatsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    public void success(long nanos, long rowCount) {
+        calls.increment();
+        rows.add(rowCount);
+        latency.record(nanos);
+    }
+
+    public void failure(long nanos) {
+        calls.increment();
+        errors.increment();
+        latency.record(nanos);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return Math.min(latency.snapshot().percentile(0.50) / 1_000, getMaxMicros());
+    }
+
+    @Override
+    public long getP99Micros() {
+        return Math.min(latency.snapshot().percentile(0.99) / 1_000, getMaxMicros());
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return latency.getMax() / 1_000;
+    }
+}
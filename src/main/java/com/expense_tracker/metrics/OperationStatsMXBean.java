@@ -0,0 +1,21 @@
+package com.expense_tracker.metrics;
+
+/**
+ * JMX view of one DAO operation. Latencies are in microseconds and cover
+ * every call since startup.
+ */
+public interface OperationStatsMXBean {
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+}
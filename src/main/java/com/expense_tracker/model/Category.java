@@ -3,6 +3,7 @@ package com.expense_tracker.model;
 public class Category {
     private int id;
     private String name;
+    private long version;
     
     public Category() {
     }
@@ -33,6 +34,18 @@ public class Category {
         this.name = name;
     }
     
+    /**
+     * The row version this category was read or last written at. Updates
+     * only succeed while the stored row still has this version.
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return name;
@@ -1,6 +1,5 @@
 package com.expense_tracker.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public class Expense {
@@ -8,17 +7,18 @@ public class Expense {
     private String name;
     private int categoryId;
     private String categoryName;
-    private BigDecimal amount;
+    private long amountCents;
     private String description;
     private LocalDate date;
+    private long version;
     
     public Expense() {
     }
     
-    public Expense(String name, int categoryId, BigDecimal amount, String description, LocalDate date) {
+    public Expense(String name, int categoryId, long amountCents, String description, LocalDate date) {
         this.name = name;
         this.categoryId = categoryId;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.description = description;
         this.date = date;
     }
@@ -56,12 +56,13 @@ public class Expense {
         this.categoryName = categoryName;
     }
     
-    public BigDecimal getAmount() {
-        return amount;
+    /** The amount in cents. */
+    public long getAmountCents() {
+        return amountCents;
     }
     
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
     }
     
     public String getDescription() {
@@ -80,9 +81,21 @@ public class Expense {
         this.date = date;
     }
     
+    /**
+     * The row version this expense was read or last written at. Updates
+     * only succeed while the stored row still has this version.
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
-        return String.format("Expense{id=%d, name='%s', category='%s', amount=%.2f, date=%s}",
-            id, name, categoryName, amount, date);
+        return String.format("Expense{id=%d, name='%s', category='%s', amount=%s, date=%s}",
+            id, name, categoryName, Money.format(amountCents), date);
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.expense_tracker.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Amounts are carried as a {@code long} number of
+ * cents everywhere in the model, which matches the {@code DECIMAL(10, 2)}
+ * columns exactly and keeps sums free of rounding drift and allocation.
+ * {@link BigDecimal} is only used at the JDBC and text boundaries.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+
+    /**
+     * Converts a decimal amount to cents.
+     *
+     * @throws ArithmeticException if {@code amount} has more than two decimals
+     *         or does not fit in a {@code long}
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts cents to a decimal with scale 2, e.g. for binding a
+     * {@code DECIMAL} parameter.
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Parses user input such as {@code "12"}, {@code "12.5"} or {@code "12.50"}.
+     *
+     * @throws NumberFormatException if the text is not a number with at most two decimals
+     */
+    public static long parse(String text) {
+        try {
+            return toCents(new BigDecimal(text.trim()).setScale(SCALE, RoundingMode.UNNECESSARY));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount must have at most two decimal places: " + text);
+        }
+    }
+
+    /**
+     * Formats cents as a plain decimal with two fraction digits, e.g.
+     * {@code -1205} as {@code "-12.05"}.
+     */
+    public static String format(long cents) {
+        StringBuilder sb = new StringBuilder(12);
+        long units = cents / 100;
+        int fraction = (int) Math.abs(cents % 100);
+        if (cents < 0 && units == 0) {
+            sb.append('-');
+        }
+        sb.append(units).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+
+    // Prevent instantiation
+    private Money() {}
+}
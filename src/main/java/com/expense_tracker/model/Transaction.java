@@ -12,22 +12,22 @@ public class Transaction {
     private LocalDate date;
     private TransactionType type;
     private String category;
-    private double amount;
+    private long amountCents;
     private String description;
 
     // Constructor with ID (for existing transactions)
-    public Transaction(int id, LocalDate date, TransactionType type, String category, double amount, String description) {
+    public Transaction(int id, LocalDate date, TransactionType type, String category, long amountCents, String description) {
         this.id = id;
         this.date = date;
         this.type = type;
         this.category = category;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.description = description;
     }
 
     // Constructor without ID (for new transactions)
-    public Transaction(LocalDate date, TransactionType type, String category, double amount, String description) {
-        this(-1, date, type, category, amount, description);
+    public Transaction(LocalDate date, TransactionType type, String category, long amountCents, String description) {
+        this(-1, date, type, category, amountCents, description);
     }
 
     // Getters and Setters
@@ -63,12 +63,13 @@ public class Transaction {
         this.category = category;
     }
 
-    public double getAmount() {
-        return amount;
+    /** The amount in cents. */
+    public long getAmountCents() {
+        return amountCents;
     }
 
-    public void setAmount(double amount) {
-        this.amount = amount;
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
     }
 
     public String getDescription() {
@@ -85,7 +86,7 @@ public class Transaction {
         if (o == null || getClass() != o.getClass()) return false;
         Transaction that = (Transaction) o;
         return id == that.id && 
-               Double.compare(that.amount, amount) == 0 &&
+               amountCents == that.amountCents &&
                Objects.equals(date, that.date) &&
                type == that.type &&
                Objects.equals(category, that.category) &&
@@ -94,14 +95,14 @@ public class Transaction {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, date, type, category, amount, description);
+        return Objects.hash(id, date, type, category, amountCents, description);
     }
 
     @Override
     public String toString() {
         return String.format(
-            "Transaction{id=%d, date=%s, type=%s, category='%s', amount=%.2f, description='%s'}",
-            id, date, type, category, amount, description
+            "Transaction{id=%d, date=%s, type=%s, category='%s', amount=%s, description='%s'}",
+            id, date, type, category, Money.format(amountCents), description
         );
     }
 }
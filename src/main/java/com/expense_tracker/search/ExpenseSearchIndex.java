@@ -0,0 +1,365 @@
+package com.expense_tracker.search;
+
+import com.expense_tracker.dao.ExpenseChangeListener;
+import com.expense_tracker.dao.ExpenseChanges;
+import com.expense_tracker.dao.ExpensetrackerAppDAO;
+import com.expense_tracker.model.Expense;
+import com.expense_tracker.util.ReloadBuffer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over expense names and descriptions.
+ *
+ * Text is split into runs of letters and digits and lower-cased. A query
+ * matches the expenses that contain, for every query word, a term starting
+ * with that word, so "coff sta" finds "Starbucks coffee". Each word's
+ * postings are collected into a bitset over expense ids and the bitsets are
+ * intersected, which keeps even one-letter queries to a few milliseconds
+ * on a million expenses.
+ *
+ * Postings live in a few immutable {@link IndexSegment}s, like an LSM tree.
+ * Writes go to a small sorted delta and drop the expense from the segment
+ * that held it. Once the delta holds {@value #MAX_DELTA_DOCUMENTS} expenses
+ * it becomes a new segment, and segments of similar size are merged, so a
+ * bulk import costs O(n log n) and a query only visits a handful of
+ * segments. Like {@link com.expense_tracker.analytics.ExpenseColumnStore},
+ * the index subscribes to the DAO and applies every committed insert,
+ * update and delete. Writes by other clients are picked up by {@link #sync},
+ * which applies the changes since the expenses version the index was last
+ * current with. Bitsets are sized by the highest expense id, which assumes
+ * auto-increment ids.
+ */
+public class ExpenseSearchIndex implements ExpenseChangeListener {
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int MAX_DELTA_DOCUMENTS = 8192;
+    private static final int[] NO_IDS = new int[0];
+    // More changes than this since the last sync reload the index instead
+    private static final int MAX_SYNC_CHANGES = 10_000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes reloads and syncs; never taken while holding lock
+    private final Object syncLock = new Object();
+    // Expenses version every write up to which is indexed; guarded by syncLock
+    private long version;
+
+    // Guarded by lock; oldest (largest) segment first
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private final TreeMap<String, PostingList> delta = new TreeMap<>();
+    private final Map<Integer, String[]> deltaTerms = new HashMap<>();
+    private long[] indexed = new long[16];
+    private int documents;
+    private int maxId;
+    private final ReloadBuffer reloads = new ReloadBuffer(lock.writeLock());
+
+    /**
+     * Creates an index, subscribes it to {@code dao} and indexes the table.
+     */
+    public static ExpenseSearchIndex attach(ExpensetrackerAppDAO dao) throws SQLException {
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        // Subscribe first so no write is missed
+        dao.addExpenseChangeListener(index);
+        index.reload(dao);
+        return index;
+    }
+
+    /**
+     * Replaces the contents with a fresh streaming scan of the expenses
+     * table; searches carry on against the old contents meanwhile (see
+     * {@link ReloadBuffer}).
+     */
+    public void reload(ExpensetrackerAppDAO dao) throws SQLException {
+        synchronized (syncLock) {
+            // Read first: the scan then sees every write up to this version
+            long loadedVersion = dao.getChangeVersions().expenses();
+            reloads.reload(() -> {
+                Loader loader = new Loader();
+                dao.forEachExpense(loader::add);
+                loader.build();
+                return loader;
+            }, this::install);
+            version = loadedVersion;
+        }
+    }
+
+    /**
+     * Applies the writes committed by any client since the index was last
+     * loaded or synced, or reloads it if there are too many. This process's
+     * own writes are already applied as they commit; applying them again is
+     * harmless.
+     */
+    public void sync(ExpensetrackerAppDAO dao) throws SQLException {
+        synchronized (syncLock) {
+            ExpenseChanges changes = dao.getExpenseChangesSince(version, MAX_SYNC_CHANGES);
+            if (!changes.complete()) {
+                reload(dao);
+                return;
+            }
+            if (!changes.isEmpty()) {
+                lock.writeLock().lock();
+                try {
+                    for (Expense expense : changes.changed()) {
+                        index(expense);
+                    }
+                    for (int id : changes.deletedIds()) {
+                        remove(id);
+                    }
+                    flushIfNeeded();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            version = changes.version();
+        }
+    }
+
+    private void install(Loader loader) {
+        segments.clear();
+        segments.add(loader.segment);
+        delta.clear();
+        deltaTerms.clear();
+        indexed = loader.indexed;
+        documents = loader.documents;
+        maxId = loader.maxId;
+    }
+
+    /** Number of indexed expenses. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the expenses matching {@code query}, highest (newest) first, or
+     * {@code null} if the query contains no letters or digits.
+     */
+    public int[] search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long[] matches = null;
+            for (String word : words) {
+                long[] bits = new long[(maxId >>> 6) + 1];
+                for (IndexSegment segment : segments) {
+                    segment.collect(word, bits);
+                }
+                for (PostingList list : delta.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    list.setBits(bits);
+                }
+                if (matches == null) {
+                    matches = bits;
+                } else {
+                    for (int i = 0; i < matches.length; i++) {
+                        matches[i] &= bits[i];
+                    }
+                }
+            }
+            return toIdsDescending(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void expensesAdded(List<Expense> expenses) {
+        reloads.apply(() -> {
+            for (Expense expense : expenses) {
+                index(expense);
+            }
+            flushIfNeeded();
+        });
+    }
+
+    @Override
+    public void expenseUpdated(Expense expense) {
+        reloads.apply(() -> {
+            index(expense);
+            flushIfNeeded();
+        });
+    }
+
+    @Override
+    public void expenseDeleted(int id) {
+        reloads.apply(() -> remove(id));
+    }
+
+    /**
+     * Splits {@code text} into lower-cased runs of letters and digits, each
+     * cut to {@value #MAX_TERM_LENGTH} characters.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, Math.min(i, start + MAX_TERM_LENGTH)).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /** The distinct terms of an expense's name and description. */
+    private static String[] terms(Expense expense) {
+        List<String> tokens = tokenize(expense.getName());
+        tokens.addAll(tokenize(expense.getDescription()));
+        return tokens.stream().distinct().toArray(String[]::new);
+    }
+
+    private void index(Expense expense) {
+        int id = expense.getId();
+        if (id <= 0) {
+            return;
+        }
+        remove(id);
+        String[] terms = terms(expense);
+        for (String term : terms) {
+            delta.computeIfAbsent(term, t -> new PostingList()).insert(id);
+        }
+        deltaTerms.put(id, terms);
+        markIndexed(id);
+    }
+
+    private void remove(int id) {
+        if (!isIndexed(id)) {
+            return;
+        }
+        String[] terms = deltaTerms.remove(id);
+        if (terms != null) {
+            for (String term : terms) {
+                PostingList list = delta.get(term);
+                list.remove(id);
+                if (list.size() == 0) {
+                    delta.remove(term);
+                }
+            }
+        } else {
+            for (IndexSegment segment : segments) {
+                if (segment.remove(id)) {
+                    break;
+                }
+            }
+        }
+        indexed[id >>> 6] &= ~(1L << id);
+        documents--;
+    }
+
+    /**
+     * Turns a full delta into a segment, then merges the newest segments
+     * while the older of the two is at most twice the size of the newer.
+     */
+    private void flushIfNeeded() {
+        if (deltaTerms.size() < MAX_DELTA_DOCUMENTS) {
+            return;
+        }
+        segments.add(IndexSegment.build(delta));
+        delta.clear();
+        deltaTerms.clear();
+        int n;
+        while ((n = segments.size()) > 1
+                && segments.get(n - 2).postingCount() <= 2L * segments.get(n - 1).postingCount()) {
+            IndexSegment newer = segments.remove(n - 1);
+            IndexSegment older = segments.remove(n - 2);
+            segments.add(IndexSegment.merge(older, newer));
+        }
+        // Drop segments whose expenses have all been updated or deleted
+        segments.removeIf(segment -> segment.liveCount() == 0);
+    }
+
+    private boolean isIndexed(int id) {
+        return isSet(indexed, id);
+    }
+
+    private static boolean isSet(long[] bits, int id) {
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & 1L << id) != 0;
+    }
+
+    private void markIndexed(int id) {
+        indexed = setBit(indexed, id);
+        documents++;
+        maxId = Math.max(maxId, id);
+    }
+
+    private static long[] setBit(long[] bits, int id) {
+        int word = id >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        }
+        bits[word] |= 1L << id;
+        return bits;
+    }
+
+    /** Collects the postings of a full scan; used by one thread, without the lock. */
+    private static final class Loader {
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private long[] indexed = new long[16];
+        private int documents;
+        private int maxId;
+        private IndexSegment segment;
+
+        void add(Expense expense) {
+            int id = expense.getId();
+            if (id <= 0 || isSet(indexed, id)) {
+                return;
+            }
+            for (String term : terms(expense)) {
+                postings.computeIfAbsent(term, t -> new PostingList()).append(id);
+            }
+            indexed = setBit(indexed, id);
+            documents++;
+            maxId = Math.max(maxId, id);
+        }
+
+        void build() {
+            // Rows arrive newest first, not in id order
+            for (PostingList list : postings.values()) {
+                list.sort();
+            }
+            segment = IndexSegment.build(new TreeMap<>(postings));
+        }
+    }
+
+    private static int[] toIdsDescending(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        if (count == 0) {
+            return NO_IDS;
+        }
+        int[] ids = new int[count];
+        int next = 0;
+        for (int w = bits.length - 1; w >= 0; w--) {
+            long word = bits[w];
+            while (word != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(word);
+                ids[next++] = w << 6 | bit;
+                word &= ~(1L << bit);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,176 @@
+package com.expense_tracker.search;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Immutable postings of a set of expenses, as in Lucene's segments: the
+ * terms in sorted order and the postings of all terms concatenated in the
+ * same order. The terms sharing a prefix are a contiguous range and so are
+ * their postings, so a prefix query is two binary searches and a sequential
+ * pass over an int array however many terms match.
+ *
+ * Only the live set changes: an expense updated or deleted after the
+ * segment was built is dropped from it and its postings are skipped until
+ * the segment is merged. Not thread-safe; guarded by the owning index's lock.
+ */
+final class IndexSegment {
+    private final String[] terms;
+    // Postings of terms[t] are ids[offsets[t]] .. ids[offsets[t + 1] - 1], ascending
+    private final int[] offsets;
+    private final int[] ids;
+    private final long[] live;
+    private int liveCount;
+
+    private IndexSegment(String[] terms, int[] offsets, int[] ids, long[] live, int liveCount) {
+        this.terms = terms;
+        this.offsets = offsets;
+        this.ids = ids;
+        this.live = live;
+        this.liveCount = liveCount;
+    }
+
+    /** Builds a segment from sorted terms with ascending posting lists. */
+    static IndexSegment build(SortedMap<String, PostingList> postings) {
+        String[] terms = new String[postings.size()];
+        int[] offsets = new int[terms.length + 1];
+        long total = 0;
+        for (PostingList list : postings.values()) {
+            total += list.size();
+        }
+        int[] ids = new int[Math.toIntExact(total)];
+        int maxId = 0;
+        int t = 0;
+        int count = 0;
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            PostingList list = entry.getValue();
+            for (int i = 0; i < list.size(); i++) {
+                ids[count++] = list.get(i);
+            }
+            if (list.size() > 0) {
+                maxId = Math.max(maxId, list.get(list.size() - 1));
+            }
+            terms[t] = entry.getKey();
+            offsets[++t] = count;
+        }
+        long[] live = new long[(maxId >>> 6) + 1];
+        for (int id : ids) {
+            live[id >>> 6] |= 1L << id;
+        }
+        return new IndexSegment(terms, offsets, ids, live, cardinality(live));
+    }
+
+    /**
+     * Merges the live postings of two segments, which must not share live ids.
+     */
+    static IndexSegment merge(IndexSegment a, IndexSegment b) {
+        String[] terms = new String[a.terms.length + b.terms.length];
+        int[] offsets = new int[terms.length + 1];
+        int[] ids = new int[a.ids.length + b.ids.length];
+        int termCount = 0;
+        int idCount = 0;
+        int ta = 0;
+        int tb = 0;
+        while (ta < a.terms.length || tb < b.terms.length) {
+            int order = ta == a.terms.length ? 1 : tb == b.terms.length ? -1 : a.terms[ta].compareTo(b.terms[tb]);
+            String term = order <= 0 ? a.terms[ta] : b.terms[tb];
+            int ia = order <= 0 ? a.offsets[ta] : 0;
+            int endA = order <= 0 ? a.offsets[ta + 1] : 0;
+            int ib = order >= 0 ? b.offsets[tb] : 0;
+            int endB = order >= 0 ? b.offsets[tb + 1] : 0;
+            int start = idCount;
+            while (ia < endA || ib < endB) {
+                int id;
+                boolean keep;
+                if (ib == endB || (ia < endA && a.ids[ia] < b.ids[ib])) {
+                    id = a.ids[ia++];
+                    keep = a.isLive(id);
+                } else {
+                    id = b.ids[ib++];
+                    keep = b.isLive(id);
+                }
+                if (keep) {
+                    ids[idCount++] = id;
+                }
+            }
+            if (idCount > start) {
+                terms[termCount] = term;
+                offsets[++termCount] = idCount;
+            }
+            if (order <= 0) {
+                ta++;
+            }
+            if (order >= 0) {
+                tb++;
+            }
+        }
+        long[] live = Arrays.copyOf(a.live, Math.max(a.live.length, b.live.length));
+        for (int i = 0; i < b.live.length; i++) {
+            live[i] |= b.live[i];
+        }
+        return new IndexSegment(Arrays.copyOf(terms, termCount), Arrays.copyOf(offsets, termCount + 1),
+            Arrays.copyOf(ids, idCount), live, a.liveCount + b.liveCount);
+    }
+
+    /** Sets the bit of every live id with a term starting with {@code prefix}. */
+    void collect(String prefix, long[] bits) {
+        int from = offsets[lowerBound(prefix)];
+        int to = offsets[lowerBound(prefix + Character.MAX_VALUE)];
+        for (int i = from; i < to; i++) {
+            int id = ids[i];
+            long mask = 1L << id;
+            if ((live[id >>> 6] & mask) != 0) {
+                bits[id >>> 6] |= mask;
+            }
+        }
+    }
+
+    /** Drops {@code id} from this segment; returns {@code false} if it is not live here. */
+    boolean remove(int id) {
+        if (!isLive(id)) {
+            return false;
+        }
+        live[id >>> 6] &= ~(1L << id);
+        liveCount--;
+        return true;
+    }
+
+    boolean isLive(int id) {
+        int word = id >>> 6;
+        return word < live.length && (live[word] & 1L << id) != 0;
+    }
+
+    /** Postings held, including those of expenses no longer live. */
+    int postingCount() {
+        return ids.length;
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    /** Index of the first term not less than {@code key}. */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,65 @@
+package com.expense_tracker.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of expense ids for one term. Not thread-safe; guarded by the
+ * owning index's lock.
+ */
+final class PostingList {
+    private int[] ids = new int[2];
+    private int size;
+
+    /** Appends {@code id} without keeping the list sorted; call {@link #sort()} afterwards. */
+    void append(int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    /** Inserts {@code id} in order; new expenses have the highest ids, so this is usually an append. */
+    void insert(int id) {
+        if (size == 0 || ids[size - 1] < id) {
+            append(id);
+            return;
+        }
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        ids[at] = id;
+        size++;
+    }
+
+    void remove(int id) {
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        if (at >= 0) {
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+        }
+    }
+
+    void sort() {
+        Arrays.sort(ids, 0, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return ids[index];
+    }
+
+    void setBits(long[] bits) {
+        for (int i = 0; i < size; i++) {
+            bits[ids[i] >>> 6] |= 1L << ids[i];
+        }
+    }
+}
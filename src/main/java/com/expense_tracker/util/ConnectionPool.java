@@ -0,0 +1,371 @@
+package com.expense_tracker.util;
+
+import com.expense_tracker.metrics.LatencyHistogram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Callers borrow a connection with {@link #getConnection()} and give it back by
+ * calling {@code close()} on it, so existing try-with-resources code keeps
+ * working unchanged. Idle connections are validated before reuse, evicted after
+ * the idle timeout, and connections held longer than the leak threshold are
+ * reported together with the stack trace of the borrower. The time every
+ * {@link #getConnection()} call took is kept in {@link #getAcquireTime()}, and
+ * statements slower than the configured threshold are logged by {@link SlowQueryLog}.
+ */
+public class ConnectionPool {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final PoolConfig config;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<Lease> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final SlowQueryLog slowQueryLog;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, PoolConfig config) {
+        if (config.getMinSize() > config.getMaxSize()) {
+            throw new IllegalArgumentException("minSize must not exceed maxSize");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.slowQueryLog = config.getSlowQueryThresholdMillis() > 0 ? new SlowQueryLog(config) : null;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.getHousekeepingPeriodMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured connection timeout when
+     * every connection is in use.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + config.getConnectionTimeoutMillis()
+                    + " ms waiting for a database connection (active=" + active.size()
+                    + ", max=" + config.getMaxSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeIdleOrCreate();
+            Lease lease = new Lease(entry);
+            active.add(lease);
+            acquireTime.record(System.nanoTime() - start);
+            return lease.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens connections until the pool holds at least {@code minSize} of them.
+     */
+    public void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.getMinSize()) {
+            try {
+                PooledEntry entry = createEntry();
+                if (closed) {
+                    entry.closePhysical();
+                    return;
+                }
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                System.err.println("Connection pool: could not open connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    /**
+     * How long successful {@link #getConnection()} calls took, including
+     * waiting for a free connection and opening a new one.
+     */
+    public LatencyHistogram getAcquireTime() {
+        return acquireTime;
+    }
+
+    /**
+     * Closes every idle connection and stops housekeeping. Connections still
+     * borrowed are closed as soon as they are returned.
+     */
+    public void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            entry.closePhysical();
+        }
+        if (!active.isEmpty()) {
+            System.err.println("Connection pool: shutting down with " + active.size()
+                + " connection(s) still in use");
+        }
+    }
+
+    private PooledEntry takeIdleOrCreate() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) {
+                return entry;
+            }
+            entry.closePhysical();
+        }
+        return createEntry();
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long sinceLastUse = System.currentTimeMillis() - entry.lastUsedAt;
+        if (sinceLastUse < config.getValidationIntervalMillis()) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PooledEntry(physical);
+    }
+
+    private void release(Lease lease) {
+        active.remove(lease);
+        PooledEntry entry = lease.entry;
+        try {
+            if (closed || entry.physical.isClosed()) {
+                entry.closePhysical();
+                return;
+            }
+            resetState(entry.physical);
+            entry.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            entry.closePhysical();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void resetState(Connection physical) throws SQLException {
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        physical.clearWarnings();
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            reportLeaks();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > config.getMinSize()) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastUsedAt > config.getIdleTimeoutMillis() && idle.remove(entry)) {
+                entry.closePhysical();
+            }
+        }
+    }
+
+    private void reportLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Lease lease : active) {
+            if (!lease.leakReported && now - lease.borrowedAt > threshold) {
+                lease.leakReported = true;
+                System.err.println("Connection pool: possible connection leak, connection held for "
+                    + (now - lease.borrowedAt) + " ms by thread " + lease.borrowerThread);
+                if (lease.borrowSite != null) {
+                    lease.borrowSite.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private final class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.statementCache = config.getStatementCacheSize() > 0
+                ? new StatementCache(physical, config.getStatementCacheSize())
+                : null;
+        }
+
+        private void closePhysical() {
+            totalConnections.decrementAndGet();
+            if (statementCache != null) {
+                statementCache.closeAll();
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Nothing useful to do with a connection we are discarding
+            }
+        }
+    }
+
+    /**
+     * One borrowing of a pooled connection. The proxy handed to callers routes
+     * {@code close()} back to the pool and refuses use after it was returned.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledEntry entry;
+        private final Connection proxy;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String borrowerThread = Thread.currentThread().getName();
+        private final Throwable borrowSite;
+        private final List<Statement> openStatements = new ArrayList<>();
+        private volatile boolean returned;
+        private volatile boolean leakReported;
+
+        private Lease(PooledEntry entry) {
+            this.entry = entry;
+            this.borrowSite = config.getLeakDetectionThresholdMillis() > 0
+                ? new Throwable("Connection borrowed here")
+                : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    returnToPool();
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                Object result = isCacheablePrepare(method)
+                    ? entry.statementCache.prepare((Connection) proxy, (String) args[0],
+                        args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS)
+                    : method.invoke(entry.physical, args);
+                if (result instanceof Statement) {
+                    Statement statement = (Statement) result;
+                    if (slowQueryLog != null) {
+                        statement = slowQueryLog.wrap(statement, entry.physical,
+                            method.getName().equals("createStatement") ? null : (String) args[0]);
+                    }
+                    openStatements.add(statement);
+                    return statement;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private boolean isCacheablePrepare(Method method) {
+            if (entry.statementCache == null || !method.getName().equals("prepareStatement")) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+
+        private synchronized void returnToPool() {
+            if (returned) {
+                return;
+            }
+            returned = true;
+            // Cached statements go back to the connection's cache, the rest are closed
+            for (Statement statement : openStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    // The statement is being discarded anyway
+                }
+            }
+            openStatements.clear();
+            release(this);
+        }
+    }
+}
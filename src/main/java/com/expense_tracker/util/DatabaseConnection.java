@@ -1,22 +1,97 @@
 package com.expense_tracker.util;
 
+import com.expense_tracker.metrics.DaoMetrics;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/expense_tracker?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
-    private static final String USER = "root";
-    private static final String PASSWORD = "logeshaastha01";
+    private static final String URL = System.getProperty("expense.db.url",
+        "jdbc:mysql://localhost:3306/expense_tracker?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC"
+            + "&useServerPrepStmts=true&cachePrepStmts=false&rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("expense.db.user", "root");
+    private static final String PASSWORD = System.getProperty("expense.db.password", "logeshaastha01");
+
+    private static final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
+
+    private static volatile ConnectionPool pool;
+    private static boolean shutdownHookRegistered;
 
+    /**
+     * Borrows a connection from the shared pool. Closing the returned
+     * connection hands it back to the pool instead of disconnecting.
+     */
     public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Hit/miss counters of the per-connection prepared statement caches.
+     */
+    public static StatementCache.Stats getStatementCacheStats() {
+        return StatementCache.stats();
+    }
+
+    /**
+     * Registers work that still needs the database when {@link #shutdown()}
+     * runs, such as flushing queued writes. Tasks run before the pool closes.
+     */
+    public static void addShutdownTask(Runnable task) {
+        shutdownTasks.add(task);
+    }
+
+    public static void removeShutdownTask(Runnable task) {
+        shutdownTasks.remove(task);
+    }
+
+    /**
+     * Runs the shutdown tasks, then closes all pooled connections. Also runs
+     * automatically on JVM shutdown.
+     */
+    public static synchronized void shutdown() {
+        for (Runnable task : shutdownTasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool createPool() throws SQLException {
         try {
             // Load the MySQL JDBC driver
             Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
         } catch (ClassNotFoundException e) {
             throw new SQLException("MySQL JDBC Driver not found", e);
         }
+        ConnectionPool created = new ConnectionPool(URL, USER, PASSWORD, PoolConfig.fromSystemProperties());
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::shutdown, "connection-pool-shutdown"));
+            shutdownHookRegistered = true;
+            DaoMetrics.get().registerPool(() -> pool);
+        }
+        return created;
     }
 
     // Prevent instantiation
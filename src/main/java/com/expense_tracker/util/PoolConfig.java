@@ -0,0 +1,145 @@
+package com.expense_tracker.util;
+
+/**
+ * Tuning knobs for {@link ConnectionPool}. Every value can be overridden with a
+ * JVM system property (for example {@code -Dexpense.pool.maxSize=20}).
+ */
+public class PoolConfig {
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long connectionTimeoutMillis = 30_000;
+    private long idleTimeoutMillis = 600_000;
+    private long validationIntervalMillis = 5_000;
+    private int validationTimeoutSeconds = 2;
+    private long leakDetectionThresholdMillis = 60_000;
+    private long housekeepingPeriodMillis = 30_000;
+    private int statementCacheSize = 64;
+    private long slowQueryThresholdMillis = 1_000;
+    private boolean explainSlowQueries;
+    private long explainIntervalMillis = 600_000;
+
+    public static PoolConfig fromSystemProperties() {
+        PoolConfig config = new PoolConfig();
+        config.setMinSize(Integer.getInteger("expense.pool.minSize", config.minSize));
+        config.setMaxSize(Integer.getInteger("expense.pool.maxSize", config.maxSize));
+        config.setConnectionTimeoutMillis(Long.getLong("expense.pool.connectionTimeoutMs", config.connectionTimeoutMillis));
+        config.setIdleTimeoutMillis(Long.getLong("expense.pool.idleTimeoutMs", config.idleTimeoutMillis));
+        config.setValidationIntervalMillis(Long.getLong("expense.pool.validationIntervalMs", config.validationIntervalMillis));
+        config.setValidationTimeoutSeconds(Integer.getInteger("expense.pool.validationTimeoutSec", config.validationTimeoutSeconds));
+        config.setLeakDetectionThresholdMillis(Long.getLong("expense.pool.leakDetectionThresholdMs", config.leakDetectionThresholdMillis));
+        config.setHousekeepingPeriodMillis(Long.getLong("expense.pool.housekeepingPeriodMs", config.housekeepingPeriodMillis));
+        config.setStatementCacheSize(Integer.getInteger("expense.pool.statementCacheSize", config.statementCacheSize));
+        config.setSlowQueryThresholdMillis(Long.getLong("expense.pool.slowQueryThresholdMs", config.slowQueryThresholdMillis));
+        config.setExplainSlowQueries(Boolean.getBoolean("expense.pool.explainSlowQueries"));
+        config.setExplainIntervalMillis(Long.getLong("expense.pool.explainIntervalMs", config.explainIntervalMillis));
+        return config;
+    }
+
+    // Getters and Setters
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("minSize must not be negative");
+        }
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /** A value of zero or less disables leak detection. */
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+
+    /** Prepared statements cached per connection; zero disables the cache. */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /** Statements running at least this long are logged; zero or less disables the slow-query log. */
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    /** Whether slow statements are also run through EXPLAIN and the plan logged. */
+    public boolean isExplainSlowQueries() {
+        return explainSlowQueries;
+    }
+
+    public void setExplainSlowQueries(boolean explainSlowQueries) {
+        this.explainSlowQueries = explainSlowQueries;
+    }
+
+    /** Minimum time between two EXPLAINs of the same SQL text. */
+    public long getExplainIntervalMillis() {
+        return explainIntervalMillis;
+    }
+
+    public void setExplainIntervalMillis(long explainIntervalMillis) {
+        this.explainIntervalMillis = explainIntervalMillis;
+    }
+}
@@ -0,0 +1,91 @@
+package com.expense_tracker.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Lets an in-memory copy of a table reload without blocking its readers and
+ * writers for the length of the scan.
+ *
+ * The copy routes every change through {@link #apply}, under its write lock.
+ * {@link #reload} builds the new contents without that lock, so reads and
+ * changes carry on against the old contents meanwhile; the changes applied
+ * in the meantime are recorded and run again after the new contents are
+ * installed. A change must therefore act on whatever contents are current
+ * when it runs, and be idempotent (an upsert or delete by id), since the
+ * scan may already have seen it.
+ */
+public final class ReloadBuffer {
+
+    @FunctionalInterface
+    public interface Builder<T> {
+        T build() throws SQLException;
+    }
+
+    private final Lock writeLock;
+    // Changes applied while a reload is building; null when none is running.
+    // Guarded by writeLock
+    private List<Runnable> pending;
+
+    /**
+     * @param writeLock the lock guarding the contents
+     */
+    public ReloadBuffer(Lock writeLock) {
+        this.writeLock = writeLock;
+    }
+
+    /**
+     * Runs {@code change} on the current contents under the write lock, and
+     * records it for replay if a reload is building.
+     */
+    public void apply(Runnable change) {
+        writeLock.lock();
+        try {
+            change.run();
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Builds new contents with {@code builder}, then, under the write lock,
+     * passes them to {@code install} and replays the changes applied since
+     * the build started. If the build fails, the old contents stay. Reloads
+     * run one at a time.
+     */
+    public synchronized <T> void reload(Builder<T> builder, Consumer<T> install) throws SQLException {
+        setPending(new ArrayList<>());
+        T built;
+        try {
+            built = builder.build();
+        } catch (SQLException | RuntimeException e) {
+            setPending(null);
+            throw e;
+        }
+        writeLock.lock();
+        try {
+            install.accept(built);
+            for (Runnable change : pending) {
+                change.run();
+            }
+        } finally {
+            pending = null;
+            writeLock.unlock();
+        }
+    }
+
+    private void setPending(List<Runnable> changes) {
+        writeLock.lock();
+        try {
+            pending = changes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.expense_tracker.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs statements that take longer than a threshold, with their SQL, bound
+ * parameters, elapsed time and row count.
+ *
+ * {@link ConnectionPool} wraps every statement it hands out in a
+ * {@link TimedStatement}, which times only the {@code execute*} calls, so
+ * reading rows (including from a streaming cursor) is not counted as query
+ * time. A slow query is logged once its result set is closed, with the
+ * number of rows read. When EXPLAIN is enabled, the plan of a slow statement is
+ * logged as well. The same SQL is explained at most once per explain interval
+ * and there is at most one EXPLAIN per second overall, so a burst of slow
+ * queries does not add load to a database that is already struggling.
+ */
+final class SlowQueryLog {
+    private static final Logger LOG = LogManager.getLogger(SlowQueryLog.class);
+    private static final long MIN_EXPLAIN_GAP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_TRACKED_SQL = 1_000;
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final long explainIntervalNanos;
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final AtomicLong nextExplainAt = new AtomicLong(System.nanoTime());
+
+    SlowQueryLog(PoolConfig config) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowQueryThresholdMillis());
+        this.explain = config.isExplainSlowQueries();
+        this.explainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getExplainIntervalMillis());
+    }
+
+    /**
+     * Wraps {@code statement} so its executions are timed. {@code sql} is
+     * {@code null} for plain statements, whose SQL is passed to execute.
+     */
+    Statement wrap(Statement statement, Connection physical, String sql) {
+        return statement instanceof PreparedStatement pstmt
+            ? new TimedPreparedStatement(this, pstmt, physical, sql)
+            : new TimedStatement(this, statement, physical);
+    }
+
+    /**
+     * Called by {@link TimedStatement} after every execution; logs it if it
+     * took at least the threshold. {@code rows} is -1 when unknown, and the rows
+     * read for a query.
+     */
+    void executed(String sql, List<Object> parameters, int batches, long elapsedNanos, long rows,
+                  Throwable failure, Connection physical) {
+        if (isSlow(elapsedNanos)) {
+            report(sql, parameters, batches, elapsedNanos, rows, failure, physical);
+        }
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /** The rows affected according to an execute result, or -1 for queries. */
+    static long updateCount(Object result) {
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return result instanceof Number number ? number.longValue() : -1;
+    }
+
+    private void report(String sql, List<Object> parameters, int batches, long elapsedNanos, long rows,
+                        Throwable failure, Connection physical) {
+        StringBuilder message = new StringBuilder()
+            .append("Slow query: ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms");
+        if (rows >= 0) {
+            message.append(", ").append(rows).append(" rows");
+        }
+        if (batches > 0) {
+            message.append(", ").append(batches).append(" batched");
+        }
+        if (failure != null) {
+            message.append(", failed: ").append(failure.getMessage());
+        }
+        message.append("\n  ").append(sql);
+        if (!parameters.isEmpty()) {
+            message.append("\n  parameters: ").append(formatParameters(parameters));
+        }
+        if (explain && batches == 0 && isExplainable(sql, parameters) && claimExplain(sql)) {
+            message.append("\n  plan:").append(explain(sql, parameters, physical));
+        }
+        LOG.warn(message);
+    }
+
+    private static boolean isExplainable(String sql, List<Object> parameters) {
+        String verb = sql.stripLeading().split("\\s+", 2)[0].toUpperCase();
+        if (!verb.equals("SELECT") && !verb.equals("UPDATE") && !verb.equals("DELETE")
+                && !verb.equals("INSERT") && !verb.equals("REPLACE")) {
+            return false;
+        }
+        for (Object parameter : parameters) {
+            if (parameter instanceof Unreplayable) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean claimExplain(String sql) {
+        long now = System.nanoTime();
+        Long last = lastExplained.get(sql);
+        if (last != null && now - last < explainIntervalNanos) {
+            return false;
+        }
+        long next = nextExplainAt.get();
+        if (now - next < 0 || !nextExplainAt.compareAndSet(next, now + MIN_EXPLAIN_GAP_NANOS)) {
+            return false;
+        }
+        if (lastExplained.size() >= MAX_TRACKED_SQL) {
+            lastExplained.clear();
+        }
+        lastExplained.put(sql, now);
+        return true;
+    }
+
+    private static String explain(String sql, List<Object> parameters, Connection physical) {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement pstmt = physical.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                Object parameter = parameters.get(i);
+                if (parameter instanceof SqlNull sqlNull) {
+                    pstmt.setNull(i + 1, sqlNull.sqlType());
+                } else {
+                    pstmt.setObject(i + 1, parameter);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    plan.append("\n    ");
+                    for (int column = 1; column <= meta.getColumnCount(); column++) {
+                        if (column > 1) {
+                            plan.append(", ");
+                        }
+                        plan.append(meta.getColumnLabel(column)).append('=').append(rs.getString(column));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plan.append(" unavailable (").append(e.getMessage()).append(')');
+        }
+        return plan.toString();
+    }
+
+    private static String formatParameters(List<Object> parameters) {
+        StringBuilder formatted = new StringBuilder("[");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                formatted.append(", ");
+            }
+            Object parameter = parameters.get(i);
+            if (parameter instanceof String text) {
+                formatted.append('\'').append(text.length() > MAX_PARAMETER_LENGTH
+                    ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text).append('\'');
+            } else {
+                formatted.append(parameter);
+            }
+        }
+        return formatted.append(']').toString();
+    }
+
+    /** A parameter bound with {@code setNull}. */
+    record SqlNull(int sqlType) {
+        @Override
+        public String toString() {
+            return "NULL";
+        }
+    }
+
+    /** A stream or LOB parameter, which is not logged or replayed. */
+    record Unreplayable(String type) {
+        @Override
+        public String toString() {
+            return "<" + type + ">";
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.expense_tracker.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs how far into JVM start-up each start-up phase completes, e.g.
+ * {@code [startup] first paint at 412 ms (+37 ms)}.
+ */
+public final class StartupTimer {
+    private static long lastMark;
+
+    /**
+     * Records that {@code phase} has just finished.
+     */
+    public static synchronized void mark(String phase) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.println("[startup] " + phase + " at " + uptime + " ms (+" + (uptime - lastMark) + " ms)");
+        lastMark = uptime;
+    }
+
+    // Prevent instantiation
+    private StartupTimer() {}
+}
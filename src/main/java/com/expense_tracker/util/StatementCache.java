@@ -0,0 +1,201 @@
+package com.expense_tracker.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection.
+ *
+ * With server-side prepared statements enabled, each entry keeps a statement
+ * that MySQL has already parsed and planned, so repeating the same SQL on the
+ * same connection skips the prepare round trip. Callers still close the
+ * statement as usual; closing a cached statement only resets it and hands it
+ * back to the cache. Hit and miss counters are shared by every connection.
+ */
+public class StatementCache {
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Map<Key, Entry> entries;
+
+    public StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    EVICTIONS.increment();
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached statement for {@code sql}, preparing it on a miss.
+     * The returned statement reports {@code owner} as its connection.
+     */
+    public synchronized PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            HITS.increment();
+            entry.inUse = true;
+            return entry.proxyFor(owner);
+        }
+        MISSES.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (entry != null || maxSize <= 0) {
+            // Same SQL already checked out on this connection: hand out a plain statement
+            return statement;
+        }
+        entry = new Entry(statement);
+        entry.inUse = true;
+        entries.put(key, entry);
+        return entry.proxyFor(owner);
+    }
+
+    /** Closes every cached statement; called when the physical connection is discarded. */
+    public synchronized void closeAll() {
+        for (Entry entry : entries.values()) {
+            entry.evict();
+        }
+        entries.clear();
+    }
+
+    public static Stats stats() {
+        return new Stats(HITS.sum(), MISSES.sum(), EVICTIONS.sum());
+    }
+
+    /**
+     * Snapshot of the global statement cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions) {
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    private record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    private final class Entry {
+        private final PreparedStatement statement;
+        private Checkout checkout;
+        private boolean inUse;
+        private boolean evicted;
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement proxyFor(Connection owner) {
+            checkout = new Checkout(this, owner);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, checkout);
+        }
+
+        private void release() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            checkout.released = true;
+            checkout = null;
+            if (evicted) {
+                closeQuietly(statement);
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                // A statement that cannot be reset is not safe to reuse
+                evicted = true;
+                entries.values().remove(this);
+                closeQuietly(statement);
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly(statement);
+            }
+        }
+    }
+
+    /**
+     * The handle given to one caller. Once closed it stays closed, even after
+     * the underlying statement has been handed to someone else.
+     */
+    private final class Checkout implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private volatile boolean released;
+
+        private Checkout(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (StatementCache.this) {
+                        if (!released) {
+                            entry.release();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || entry.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // The statement is being discarded anyway
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.expense_tracker.util;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+
+/**
+ * A {@link TimedStatement} for prepared statements, which also records the
+ * bound parameters so a slow execution can be logged (and explained) with
+ * them.
+ */
+final class TimedPreparedStatement extends TimedStatement implements PreparedStatement {
+    private final PreparedStatement delegate;
+
+    TimedPreparedStatement(SlowQueryLog log, PreparedStatement delegate, Connection physical, String sql) {
+        super(log, delegate, physical, sql, new ArrayList<>());
+        this.delegate = delegate;
+    }
+
+    private void record(int parameterIndex, Object value) {
+        while (parameters.size() < parameterIndex) {
+            parameters.add(null);
+        }
+        parameters.set(parameterIndex - 1, value);
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        delegate.addBatch();
+        batches++;
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        delegate.clearParameters();
+        parameters.clear();
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return timed(preparedSql, parameters, delegate::execute);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return timed(preparedSql, parameters, delegate::executeLargeUpdate);
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return timedQuery(preparedSql, parameters, delegate::executeQuery);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return timed(preparedSql, parameters, delegate::executeUpdate);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return delegate.getParameterMetaData();
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        delegate.setArray(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate.setAsciiStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("AsciiStream"));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate.setAsciiStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("AsciiStream"));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        delegate.setAsciiStream(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("AsciiStream"));
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        delegate.setBigDecimal(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate.setBinaryStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("BinaryStream"));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate.setBinaryStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("BinaryStream"));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        delegate.setBinaryStream(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("BinaryStream"));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate.setBlob(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("Blob"));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+        delegate.setBlob(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("Blob"));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        delegate.setBlob(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("Blob"));
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        delegate.setBoolean(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        delegate.setByte(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        delegate.setBytes(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+        delegate.setCharacterStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("CharacterStream"));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        delegate.setCharacterStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("CharacterStream"));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        delegate.setCharacterStream(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("CharacterStream"));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+        delegate.setClob(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("Clob"));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x) throws SQLException {
+        delegate.setClob(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("Clob"));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        delegate.setClob(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("Clob"));
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        delegate.setDate(parameterIndex, x, cal);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        delegate.setDate(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        delegate.setDouble(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        delegate.setFloat(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        delegate.setInt(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        delegate.setLong(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        delegate.setNCharacterStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("NCharacterStream"));
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        delegate.setNCharacterStream(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("NCharacterStream"));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+        delegate.setNClob(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("NClob"));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x) throws SQLException {
+        delegate.setNClob(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("NClob"));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob x) throws SQLException {
+        delegate.setNClob(parameterIndex, x);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("NClob"));
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String x) throws SQLException {
+        delegate.setNString(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        delegate.setNull(parameterIndex, sqlType, typeName);
+        record(parameterIndex, new SlowQueryLog.SqlNull(sqlType));
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        delegate.setNull(parameterIndex, sqlType);
+        record(parameterIndex, new SlowQueryLog.SqlNull(sqlType));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        delegate.setObject(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        delegate.setRef(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        delegate.setRowId(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+        delegate.setSQLXML(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        delegate.setShort(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        delegate.setString(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        delegate.setTime(parameterIndex, x, cal);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        delegate.setTime(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        delegate.setTimestamp(parameterIndex, x, cal);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        delegate.setTimestamp(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        delegate.setURL(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate.setUnicodeStream(parameterIndex, x, length);
+        record(parameterIndex, new SlowQueryLog.Unreplayable("UnicodeStream"));
+    }
+}
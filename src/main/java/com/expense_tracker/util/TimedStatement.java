@@ -0,0 +1,366 @@
+package com.expense_tracker.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A statement that times its executions for {@link SlowQueryLog}.
+ *
+ * Only the {@code execute*} calls are timed, up to the point where the driver
+ * returns; everything else goes straight to the driver's statement, so the
+ * time a caller spends consuming a streaming cursor is never reported as a
+ * slow query. Result sets are returned unwrapped unless the query was already
+ * slow; then a {@link CountingResultSet} counts its rows and the query is
+ * reported when that result set, or this statement, is closed.
+ */
+class TimedStatement implements Statement {
+
+    @FunctionalInterface
+    interface Execution<T> {
+        T run() throws SQLException;
+    }
+
+    private final SlowQueryLog log;
+    private final Statement delegate;
+    private final Connection physical;
+    // SQL and bound parameters of a prepared statement; null and empty for plain statements
+    final String preparedSql;
+    final List<Object> parameters;
+    int batches;
+    // Result set of the last query if it was slow and not reported yet
+    private CountingResultSet slowQuery;
+
+    TimedStatement(SlowQueryLog log, Statement delegate, Connection physical) {
+        this(log, delegate, physical, null, List.of());
+    }
+
+    TimedStatement(SlowQueryLog log, Statement delegate, Connection physical, String preparedSql,
+                   List<Object> parameters) {
+        this.log = log;
+        this.delegate = delegate;
+        this.physical = physical;
+        this.preparedSql = preparedSql;
+        this.parameters = parameters;
+    }
+
+    <T> T timed(String sql, List<Object> bound, Execution<T> execution) throws SQLException {
+        int batched = batches;
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = execution.run();
+        } catch (SQLException | RuntimeException e) {
+            log.executed(sql, bound, batched, System.nanoTime() - start, -1, e, physical);
+            throw e;
+        }
+        log.executed(sql, bound, batched, System.nanoTime() - start, SlowQueryLog.updateCount(result), null,
+            physical);
+        return result;
+    }
+
+    ResultSet timedQuery(String sql, List<Object> bound, Execution<ResultSet> execution) throws SQLException {
+        // Executing again closes the previous result set
+        reportSlowQuery();
+        int batched = batches;
+        long start = System.nanoTime();
+        ResultSet result;
+        try {
+            result = execution.run();
+        } catch (SQLException | RuntimeException e) {
+            log.executed(sql, bound, batched, System.nanoTime() - start, -1, e, physical);
+            throw e;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        if (!log.isSlow(elapsedNanos)) {
+            return result;
+        }
+        List<Object> reported = new ArrayList<>(bound);
+        slowQuery = new CountingResultSet(result,
+            rows -> log.executed(sql, reported, batched, elapsedNanos, rows, null, physical));
+        return slowQuery;
+    }
+
+    private void reportSlowQuery() {
+        if (slowQuery != null) {
+            slowQuery.report();
+            slowQuery = null;
+        }
+    }
+
+    private <T> T timedBatch(Execution<T> execution) throws SQLException {
+        try {
+            return timed(preparedSql != null ? preparedSql : "<batch>", parameters, execution);
+        } finally {
+            // Executing a batch clears it, whether or not it succeeded
+            batches = 0;
+        }
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        delegate.addBatch(sql);
+        batches++;
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        delegate.clearBatch();
+        batches = 0;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        reportSlowQuery();
+        delegate.close();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.execute(sql, columnNames));
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.execute(sql));
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return timedBatch(delegate::executeBatch);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return timedBatch(delegate::executeLargeBatch);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeLargeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeLargeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeLargeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return timedQuery(sql, List.of(), () -> delegate.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return timed(sql, List.of(), () -> delegate.executeUpdate(sql));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return delegate.getConnection();
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return delegate.getGeneratedKeys();
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return delegate.getMoreResults(current);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return delegate.getResultSet();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate.setLargeMaxRows(max);
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+}
@@ -1,13 +1,22 @@
--- Drop tables if they exist (be careful with this in production)
-DROP TABLE IF EXISTS expenses;
-DROP TABLE IF EXISTS categories;
+-- Reference schema: the state SchemaMigrator leaves a database in after its
+-- latest migration (version 6). The application creates and upgrades its
+-- tables itself and never drops them; SchemaMigrator.MIGRATIONS is the source
+-- of truth, and this file must be updated whenever a migration is appended.
+
+-- Applied migrations (SchemaMigrator)
+CREATE TABLE IF NOT EXISTS schema_version (
+    version INT PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
 
 -- Categories table
 CREATE TABLE IF NOT EXISTS categories (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(50) NOT NULL UNIQUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Expenses table
@@ -20,11 +29,70 @@ CREATE TABLE IF NOT EXISTS expenses (
     date DATE NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE RESTRICT
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE RESTRICT,
+    INDEX idx_expenses_date_id (date, id),
+    INDEX idx_expenses_category_date (category_id, date),
+    INDEX idx_expenses_version (version)
+);
+
+-- Transactions table
+CREATE TABLE IF NOT EXISTS transactions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    date DATE NOT NULL,
+    type ENUM('INCOME', 'EXPENSE') NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    description TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_transactions_date_id (date, id),
+    INDEX idx_transactions_type_date (type, date)
+);
+
+-- Running totals per transaction type (TransactionTotals)
+CREATE TABLE IF NOT EXISTS transaction_totals (
+    type ENUM('INCOME', 'EXPENSE') PRIMARY KEY,
+    total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    row_count BIGINT NOT NULL DEFAULT 0
 );
 
+-- Monthly rollups; period is year * 100 + month (MonthlyRollup)
+CREATE TABLE IF NOT EXISTS expense_monthly_rollup (
+    period INT NOT NULL,
+    category_id INT NOT NULL,
+    total DECIMAL(15, 2) NOT NULL,
+    row_count INT NOT NULL,
+    PRIMARY KEY (period, category_id)
+);
+
+CREATE TABLE IF NOT EXISTS transaction_monthly_rollup (
+    period INT NOT NULL,
+    type ENUM('INCOME', 'EXPENSE') NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    total DECIMAL(15, 2) NOT NULL,
+    row_count INT NOT NULL,
+    PRIMARY KEY (period, type, category)
+);
+
+-- Change counters per versioned table and expense tombstones (ChangeLog)
+CREATE TABLE IF NOT EXISTS change_versions (
+    table_name VARCHAR(30) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS expense_deletions (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_expense_deletions_version (version)
+);
+
+INSERT IGNORE INTO transaction_totals (type) VALUES ('INCOME'), ('EXPENSE');
+
+INSERT IGNORE INTO change_versions (table_name) VALUES ('expenses'), ('categories');
+
 -- Insert some default categories
-INSERT INTO categories (name) VALUES 
+INSERT IGNORE INTO categories (name) VALUES
 ('Food & Dining'),
 ('Shopping'),
 ('Transportation'),
@@ -38,3 +106,12 @@ INSERT INTO categories (name) VALUES
 ('Personal Care'),
 ('Pets'),
 ('Other');
+
+-- Mark every migration as applied, so the application does not run them again
+INSERT IGNORE INTO schema_version (version, description) VALUES
+(1, 'Create categories, expenses and transactions'),
+(2, 'Create running transaction totals'),
+(3, 'Create and backfill monthly rollups'),
+(4, 'Add date, type and category indexes'),
+(5, 'Seed default categories'),
+(6, 'Add row versions and expense change tracking');